@@ -0,0 +1,69 @@
+package org.APD.Algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to score a whole population with the per-individual {@link SpaceSharedSurrogate}
+ * path against the population-batched {@link BatchScorer}. The batched figure includes
+ * transposing the individual-major population to cloudlet-major, as GA and PSO have to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchScoringBenchmark {
+
+    private static final int CLOUDLETS = 20_000;
+
+    @Param({"10", "100"})
+    public int vms;
+
+    @Param({"8", "30", "128"})
+    public int population;
+
+    private SpaceSharedSurrogate model;
+    private BatchScorer scorer;
+    private int[] genes;
+    private int[] cloudletMajor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        model = SyntheticWorkload.model(CLOUDLETS, vms, random);
+        genes = new int[population * CLOUDLETS];
+        for (int i = 0; i < genes.length; i++)
+            genes[i] = random.nextInt(vms);
+        scorer = new BatchScorer(model, population);
+        cloudletMajor = new int[genes.length];
+    }
+
+    @Benchmark
+    public void perIndividual(Blackhole blackhole) {
+        for (int p = 0; p < population; p++)
+            blackhole.consume(model.evaluate(genes, p * CLOUDLETS));
+    }
+
+    @Benchmark
+    public void batched(Blackhole blackhole) {
+        BatchScorer.transpose(genes, CLOUDLETS, 0, population, cloudletMajor);
+        scorer.score(cloudletMajor, population);
+        for (int p = 0; p < population; p++)
+            blackhole.consume(scorer.violations(p));
+    }
+}
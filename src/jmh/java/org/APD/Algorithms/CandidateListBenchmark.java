@@ -0,0 +1,85 @@
+package org.APD.Algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ACO decision throughput (VM choices per second) of the full roulette against the
+ * candidate-list / alias-table mode, for growing VM counts, plus the cost of rebuilding
+ * the candidate lists, which candidate mode pays once per iteration.
+ * The trails are random and fixed, so every allocation is built from the same weights.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CandidateListBenchmark {
+
+    private static final int CLOUDLETS = 2000;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int vms;
+
+    @Param({"16"})
+    public int candidates;
+
+    private SpaceSharedSurrogate model;
+    private PheromoneMatrix pheromones;
+    private Ant ant;
+    private SplittableRandom random;
+    private ACOAlgorithm fullRoulette;
+    private ACOAlgorithm withCandidates;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+        model = SyntheticWorkload.model(CLOUDLETS, vms, random);
+        pheromones = new PheromoneMatrix(CLOUDLETS, vms, 1.0);
+        for (int c = 0; c < CLOUDLETS; c++)
+            for (int vm = 0; vm < vms; vm++)
+                pheromones.set(c, vm, 0.8 + random.nextDouble() * 9.2);
+        ant = new Ant(model);
+
+        fullRoulette = new ACOAlgorithm();
+        withCandidates = new ACOAlgorithm();
+        withCandidates.candidateLists = new CandidateLists(CLOUDLETS, vms, candidates);
+        withCandidates.candidateLists.rebuild(pheromones, model, withCandidates.PHER_INF, withCandidates.HEUR_INF);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLOUDLETS)
+    public int fullRoulette() {
+        fullRoulette.constructAllocation(ant, pheromones, model, random);
+        return ant.getVmAssignment()[CLOUDLETS - 1];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLOUDLETS)
+    public int candidateList() {
+        withCandidates.constructAllocation(ant, pheromones, model, random);
+        return ant.getVmAssignment()[CLOUDLETS - 1];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CandidateLists rebuildCandidateLists() {
+        withCandidates.candidateLists.rebuild(pheromones, model, withCandidates.PHER_INF, withCandidates.HEUR_INF);
+        return withCandidates.candidateLists;
+    }
+}
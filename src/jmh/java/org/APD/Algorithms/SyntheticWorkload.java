@@ -0,0 +1,50 @@
+package org.APD.Algorithms;
+
+import org.APD.DeadlineCloudlet;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic workloads for the benchmarks: cloudlets with steadily growing arrival times
+ * and deadlines a few seconds after arrival, and VMs with evenly spread MIPS.
+ * Only the primitive copy in {@link SpaceSharedSurrogate} is used, no simulation is run.
+ */
+final class SyntheticWorkload {
+
+    private static final int LENGTH_MIN = 1000;
+    private static final int LENGTH_SPREAD = 20_000;
+
+    private SyntheticWorkload() {
+    }
+
+    static SpaceSharedSurrogate model(int cloudlets, int vms, SplittableRandom random) {
+        return new SpaceSharedSurrogate(cloudlets(cloudlets, random), vms(vms));
+    }
+
+    static List<DeadlineCloudlet> cloudlets(int count, SplittableRandom random) {
+        List<DeadlineCloudlet> list = new ArrayList<>(count);
+        double arrival = 0;
+        for (int i = 0; i < count; i++) {
+            arrival += random.nextDouble() * 0.05;
+            DeadlineCloudlet cloudlet = new DeadlineCloudlet(i, LENGTH_MIN + random.nextInt(LENGTH_SPREAD), 1);
+            cloudlet.setSubmissionDelay(arrival);
+            cloudlet.setDeadline(arrival + 2.0 + random.nextDouble() * 3.0);
+            list.add(cloudlet);
+        }
+        return list;
+    }
+
+    static List<Vm> vms(int count) {
+        List<Vm> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double mips = AlgorithmBaseFunctionalities.MIPS_PER_VM_MIN
+                    + (AlgorithmBaseFunctionalities.MIPS_PER_VM_MAX - AlgorithmBaseFunctionalities.MIPS_PER_VM_MIN) * (double) i / count;
+            list.add(new VmSimple(i, mips, 1));
+        }
+        return list;
+    }
+}
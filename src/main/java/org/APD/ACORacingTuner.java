@@ -0,0 +1,286 @@
+package org.APD;
+
+import org.APD.Algorithms.ACOAlgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.IntToLongFunction;
+
+/**
+ * F-race style tuner for {@link ACOAlgorithm} hyperparameters.
+ * <p>
+ * All configurations start on the same workload instance. After every round, once
+ * {@code minInstances} instances were seen, a Friedman test over the costs of the surviving
+ * configurations decides whether they differ. If they do, every configuration whose rank sum
+ * is worse than the best one by more than the Conover post-hoc critical difference is dropped.
+ * The next instance is only run by the survivors, so bad configurations stop consuming runs early.
+ * The race ends when one configuration is left, {@code maxInstances} instances were used
+ * or the run budget is spent.
+ * </p>
+ * <p>
+ * Compute is counted in ant evaluations ({@code numAnts} × iterations actually run),
+ * and compared with what running every configuration on {@code maxInstances} instances would cost.
+ * </p>
+ */
+public class ACORacingTuner {
+
+    public record Configuration(int numAnts, int iterations, double evaporationRate,
+                                int pheromoneInfluence, int heuristicInfluence) {
+
+        public ACOAlgorithm create(long seed) {
+            return new ACOAlgorithm(numAnts, iterations, evaporationRate)
+                    .setInfluence(pheromoneInfluence, heuristicInfluence)
+                    .setSeed(seed);
+        }
+
+        /* ant evaluations of one run that does all its iterations */
+        long fullRunCost() {
+            return (long) numAnts * iterations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ants=%d iters=%d evap=%.2f alpha=%d beta=%d",
+                    numAnts, iterations, evaporationRate, pheromoneInfluence, heuristicInfluence);
+        }
+    }
+
+    /**
+     * Runs the algorithm on workload instance {@code instance} and returns its cost, lower is better.
+     * Called concurrently for different configurations of the same instance.
+     */
+    @FunctionalInterface
+    public interface Evaluator {
+        double cost(ACOAlgorithm algorithm, int instance);
+    }
+
+    private final List<Configuration> configurations;
+    private final Evaluator evaluator;
+
+    private int minInstances = 3;
+    private int maxInstances = 16;
+    private int maxRuns = Integer.MAX_VALUE;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private IntToLongFunction instanceSeeds = instance -> instance;
+
+    private long antEvaluations;
+    private int runs;
+    private int instancesUsed;
+
+    public ACORacingTuner(List<Configuration> configurations, Evaluator evaluator) {
+        if (configurations.isEmpty())
+            throw new IllegalArgumentException("Nothing to race");
+        this.configurations = List.copyOf(configurations);
+        this.evaluator = evaluator;
+    }
+
+    /** Every combination of the given values. */
+    public static List<Configuration> grid(int[] antOptions, int[] iterationOptions, double[] evaporationRates,
+                                           int[] pheromoneInfluences, int[] heuristicInfluences) {
+        List<Configuration> grid = new ArrayList<>();
+        for (int ants : antOptions)
+            for (int iters : iterationOptions)
+                for (double evap : evaporationRates)
+                    for (int alpha : pheromoneInfluences)
+                        for (int beta : heuristicInfluences)
+                            grid.add(new Configuration(ants, iters, evap, alpha, beta));
+        return grid;
+    }
+
+    /** Races the configurations and returns the winner, the one with the best rank sum among the survivors. */
+    public Configuration race() {
+        List<Integer> alive = new ArrayList<>();
+        for (int c = 0; c < configurations.size(); c++)
+            alive.add(c);
+        // costs[c][instance], only filled for the instances configuration c actually ran
+        double[][] costs = new double[configurations.size()][maxInstances];
+        antEvaluations = 0;
+        runs = 0;
+        instancesUsed = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int instance = 0; instance < maxInstances && alive.size() > 1
+                    && runs + alive.size() <= maxRuns; instance++) {
+                runRound(executor, alive, costs, instance);
+                instancesUsed = instance + 1;
+
+                if (instancesUsed >= minInstances) {
+                    int before = alive.size();
+                    alive = eliminate(alive, costs, instancesUsed);
+                    System.out.printf("Race instance %d: %d -> %d configurations, %d runs so far%n",
+                            instancesUsed, before, alive.size(), runs);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Configuration winner = configurations.get(bestByRankSum(alive, costs, instancesUsed));
+        long fullGrid = 0;
+        for (Configuration configuration : configurations)
+            fullGrid += configuration.fullRunCost() * maxInstances;
+
+        System.out.printf("Race winner: %s (%d survivors after %d instances)%n", winner, alive.size(), instancesUsed);
+        System.out.printf("Race used %d runs / %d ant evaluations, full grid: %d runs / %d ant evaluations (%.1f%% saved)%n",
+                runs, antEvaluations, (long) configurations.size() * maxInstances, fullGrid,
+                100.0 * (1 - (double) antEvaluations / fullGrid));
+        return winner;
+    }
+
+    private void runRound(ExecutorService executor, List<Integer> alive, double[][] costs, int instance) {
+        List<Future<?>> futures = new ArrayList<>();
+        long[] roundEvaluations = new long[alive.size()];
+        for (int a = 0; a < alive.size(); a++) {
+            final int slot = a;
+            final int c = alive.get(a);
+            futures.add(executor.submit(() -> {
+                Configuration configuration = configurations.get(c);
+                ACOAlgorithm aco = configuration.create(instanceSeeds.applyAsLong(instance));
+                costs[c][instance] = evaluator.cost(aco, instance);
+                roundEvaluations[slot] = (long) configuration.numAnts() * aco.getIterationsUsed();
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Race run failed on instance " + instance, e);
+            }
+        }
+        runs += alive.size();
+        for (long evaluations : roundEvaluations)
+            antEvaluations += evaluations;
+    }
+
+    /* Friedman test over the survivors, then drop those the Conover post-hoc test finds worse than the best */
+    private List<Integer> eliminate(List<Integer> alive, double[][] costs, int instances) {
+        int k = alive.size();
+        double[] rankSums = new double[k];
+        double sumSquaredRanks = 0;
+        double[] ranks = new double[k];
+        for (int instance = 0; instance < instances; instance++) {
+            rankWithinInstance(alive, costs, instance, ranks);
+            for (int a = 0; a < k; a++) {
+                rankSums[a] += ranks[a];
+                sumSquaredRanks += ranks[a] * ranks[a];
+            }
+        }
+
+        double correction = instances * k * (k + 1) * (k + 1) / 4.0;
+        if (sumSquaredRanks - correction <= 0)
+            return alive; // every instance was a full tie
+
+        double meanRankSum = instances * (k + 1) / 2.0;
+        double spread = 0, sumSquaredRankSums = 0;
+        for (double r : rankSums) {
+            spread += (r - meanRankSum) * (r - meanRankSum);
+            sumSquaredRankSums += r * r;
+        }
+        double statistic = (k - 1) * spread / (sumSquaredRanks - correction);
+        if (statistic <= chiSquaredQuantile95(k - 1))
+            return alive;
+
+        int df = (instances - 1) * (k - 1);
+        double criticalDifference = tQuantile975(df)
+                * Math.sqrt(2 * (instances * sumSquaredRanks - sumSquaredRankSums) / df);
+        double best = Arrays.stream(rankSums).min().orElseThrow();
+
+        List<Integer> survivors = new ArrayList<>();
+        for (int a = 0; a < k; a++) {
+            if (rankSums[a] - best <= criticalDifference)
+                survivors.add(alive.get(a));
+        }
+        return survivors;
+    }
+
+    /* ranks 1..k of the alive configurations on one instance, ties get their average rank */
+    private static void rankWithinInstance(List<Integer> alive, double[][] costs, int instance, double[] ranks) {
+        Integer[] order = new Integer[alive.size()];
+        for (int a = 0; a < order.length; a++)
+            order[a] = a;
+        Arrays.sort(order, Comparator.comparingDouble(a -> costs[alive.get(a)][instance]));
+
+        for (int i = 0; i < order.length; ) {
+            int j = i;
+            double cost = costs[alive.get(order[i])][instance];
+            while (j + 1 < order.length && costs[alive.get(order[j + 1])][instance] == cost)
+                j++;
+            double rank = (i + j) / 2.0 + 1;
+            for (int t = i; t <= j; t++)
+                ranks[order[t]] = rank;
+            i = j + 1;
+        }
+    }
+
+    private static int bestByRankSum(List<Integer> alive, double[][] costs, int instances) {
+        double[] rankSums = new double[alive.size()];
+        double[] ranks = new double[alive.size()];
+        for (int instance = 0; instance < instances; instance++) {
+            rankWithinInstance(alive, costs, instance, ranks);
+            for (int a = 0; a < ranks.length; a++)
+                rankSums[a] += ranks[a];
+        }
+        int best = 0;
+        for (int a = 1; a < rankSums.length; a++) {
+            if (rankSums[a] < rankSums[best])
+                best = a;
+        }
+        return alive.get(best);
+    }
+
+    /* Wilson-Hilferty approximation of the 95% quantile of a chi-squared distribution */
+    private static double chiSquaredQuantile95(int df) {
+        double z = 1.6448536;
+        double h = 2.0 / (9 * df);
+        return df * Math.pow(1 - h + z * Math.sqrt(h), 3);
+    }
+
+    /* Cornish-Fisher expansion of the 97.5% quantile of Student's t */
+    private static double tQuantile975(int df) {
+        double z = 1.9599640;
+        double z3 = z * z * z, z5 = z3 * z * z;
+        return z + (z3 + z) / (4 * df) + (5 * z5 + 16 * z3 + 3 * z) / (96.0 * df * df);
+    }
+
+    public ACORacingTuner setMinInstances(int minInstances) {
+        this.minInstances = Math.max(2, minInstances);
+        return this;
+    }
+
+    public ACORacingTuner setMaxInstances(int maxInstances) {
+        this.maxInstances = Math.max(1, maxInstances);
+        return this;
+    }
+
+    /** Stops the race before a round that would go over this many algorithm runs. */
+    public ACORacingTuner setMaxRuns(int maxRuns) {
+        this.maxRuns = maxRuns;
+        return this;
+    }
+
+    public ACORacingTuner setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Seed of the ants on each instance. Every configuration gets the same seed on an instance,
+     * so they race on the same random numbers and the race is repeatable.
+     */
+    public ACORacingTuner setSeeds(IntToLongFunction instanceSeeds) {
+        this.instanceSeeds = instanceSeeds;
+        return this;
+    }
+
+    public long getAntEvaluations() {
+        return antEvaluations;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+}
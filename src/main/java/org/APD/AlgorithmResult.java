@@ -6,6 +6,11 @@ import org.cloudsimplus.vms.Vm;
 
 import java.util.List;
 
+/**
+ * Everything one run left behind, simulation included: through its hosts and VMs it keeps the whole
+ * {@code CloudSimPlus} instance alive. Reduce it to a {@link RunSummary} as soon as the figures are all
+ * that is needed.
+ */
 public record AlgorithmResult(
         String algorithmName,
         List<DeadlineCloudlet> cloudlets,
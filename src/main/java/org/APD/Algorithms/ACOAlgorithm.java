@@ -1,362 +1,662 @@
-package org.APD.Algorithms;
-
-import ch.qos.logback.classic.Level;
-import org.APD.AlgorithmResult;
-import org.APD.RelevantDataForAlgorithms;
-import org.cloudsimplus.brokers.DatacenterBroker;
-import org.cloudsimplus.brokers.DatacenterBrokerSimple;
-import org.APD.DeadlineCloudlet;
-import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
-import org.cloudsimplus.cloudlets.Cloudlet;
-import org.cloudsimplus.core.CloudSimPlus;
-import org.cloudsimplus.datacenters.Datacenter;
-import org.cloudsimplus.hosts.Host;
-import org.cloudsimplus.util.Log;
-import org.cloudsimplus.vms.Vm;
-
-import java.util.*;
-
-import static java.lang.Math.pow;
-import static java.util.Comparator.comparingLong;
-
-public class ACOAlgorithm extends BaseSchedulingAlgorithm {
-
-    protected final int numAnts; // Number of ants
-    protected final double evaporationRate; // Pheromone evaporation rate
-    protected final double MIN_PHEROMONE_LEVEL = 0.8;
-    protected final double MAX_PHEROMONE_LEVEL = 10.0; // Maximum pheromone level
-
-    protected final int iterations; // Number of iterations for the algorithm
-
-    protected final int PHER_INF = 1;
-    protected final int HEUR_INF = 2;
-
-    public static void main(String[] args) {
-        Log.setLevel(Level.OFF);
-        new ACOAlgorithm();
-    }
-
-    // Optional: keep a default constructor for compatibility
-    public ACOAlgorithm() {
-        this(15, 10, 0.2);
-    }
-
-    public ACOAlgorithm(int numAnts, int iterations, double evaporationRate) {
-        this.numAnts = numAnts;
-        this.iterations = iterations;
-        this.evaporationRate = evaporationRate;
-//        runAlgorithm();
-
-//        vmList = createVms();
-//        cloudletList = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs();
-//        algorithmACO();
-//
-//        System.out.println("------------------------------- SIMULATION FOR SCHEDULING INTERVAL = " + SCHEDULING_INTERVAL + " -------------------------------");
-//        final List<DeadlineCloudlet> cloudletFinishedList = broker0.getCloudletFinishedList();
-//        final Comparator<DeadlineCloudlet> hostComparator = comparingLong(cl -> cl.getVm().getHost().getId());
-//        cloudletFinishedList.sort(hostComparator.thenComparing(cl -> cl.getVm().getId()));
-//
-//        new CloudletsTableBuilder(cloudletFinishedList).build();
-//        printHostsCpuUtilizationAndPowerConsumption(hostList);
-//        printVmsCpuUtilizationAndPowerConsumption(vmList);
-//
-//        double makespan = cloudletFinishedList.stream()
-//                .mapToDouble(Cloudlet::getFinishTime)
-//                .max()
-//                .orElse(0.0);
-//
-//        System.out.printf("📌 Makespan (time of last cloudlet finish): %.2f seconds\n", makespan);
-//
-//        printSLAViolations(broker0.getCloudletFinishedList());
-
-    }
-
-    @Override
-    public AlgorithmResult run(RelevantDataForAlgorithms input) {
-        copyGivenDataLocally(input);
-
-        algorithmACO();
-
-        return new AlgorithmResult("ACO",
-                cloudletList,
-                hostList,
-                vmList,
-                broker0.getCloudletFinishedList(),
-                0);
-    }
-
-    private void  algorithmACO() {
-
-        simulation = new CloudSimPlus();
-//        hostList = new ArrayList<>(HOSTS);
-        Datacenter datacenter0 = createDatacenter(simulation, hostList);
-        broker0 = new DatacenterBrokerSimple(simulation);
-
-        double[][] pheromoneMatrix = initializePheromoneMatrix();
-
-        for (int iter = 0; iter < iterations; iter++) {
-            List<Ant> ants;
-            ants = createAnts();
-            for (Ant ant : ants) {
-                CloudSimPlus sim = new CloudSimPlus();
-                List<Host> hostlst = copyHosts(hostList);
-
-                Datacenter dc = createDatacenter(sim, hostlst);
-                DatacenterBroker broker = new DatacenterBrokerSimple(sim);
-
-                List<Vm> vmClone = copyVMs(vmList);
-                List<DeadlineCloudlet> cloudletClone = copyCloudlets(cloudletList);
-
-                broker.submitVmList(vmClone);
-
-                for (DeadlineCloudlet cl : cloudletClone) {
-                    Vm selectedVm = selectVmBasedOnPheromone(cl, vmClone, pheromoneMatrix, cloudletClone);
-                    cl.setVm(selectedVm);
-                    ant.assign(cl, selectedVm);
-                    broker.submitCloudlet(cl);
-                }
-
-                sim.start();
-
-                // Evaluate performance
-                double fitness = evaluateAnt(broker.getCloudletFinishedList());
-                ant.setFitness(fitness);
-                ant.setNumberViolations(numberOfViolations(broker));
-                ant.setCloudletsFinished(broker.getCloudletFinishedList());
-            }
-            // evaporate pheromones
-            evaporatePheromones(pheromoneMatrix);
-
-            Ant bestAnt = ants.stream()
-                    .max(Comparator.comparingDouble(Ant::getFitness))
-                    .orElseThrow();
-
-            // update pheromones based on the best ant's allocation
-            updatePheromones(bestAnt, pheromoneMatrix);
-        }
-
-
-        // submit all the Vm's to the broker
-        broker0.submitVmList(vmList);
-        // send a normal new ant to create the allocation
-        Ant ant = new Ant();
-        for (DeadlineCloudlet cl : cloudletList) {
-            Vm selectedVm = selectVmBasedOnPheromone(cl, vmList, pheromoneMatrix, cloudletList);
-            cl.setVm(selectedVm);
-            ant.assign(cl, selectedVm);
-            broker0.submitCloudlet(cl);
-        }
-
-//        broker0.submitVmList(vmList);
-
-        simulation.start();
-    }
-
-    public Vm selectVmBasedOnPheromone(DeadlineCloudlet cloudlet, List<Vm> vmList, double[][] pheromoneMatrix, List<DeadlineCloudlet> cloudletList) {
-
-        // create a pheromone matrix copy
-        double[][] pheromoneMatrixCopy = new double[pheromoneMatrix.length][pheromoneMatrix[0].length];
-        for (int i = 0; i < pheromoneMatrix.length; i++) {
-            System.arraycopy(pheromoneMatrix[i], 0, pheromoneMatrixCopy[i], 0, pheromoneMatrix[i].length);
-        }
-
-        int cloudletId = (int) cloudlet.getId();
-
-        // last finish times for each VM
-        double[] lastFinishTimes = new double[vmList.size()];
-        // for each vm, get the number of cloudlets it has and when the last one finishes
-        for (Vm vm : vmList) {
-            // get all the cloudlets assigned to this VM
-            List<DeadlineCloudlet> assignedCloudlets = new ArrayList<>();
-            for (DeadlineCloudlet cl : cloudletList) {
-                cl.getVm();
-                if (cl.getVm().getId() == vm.getId() && !cl.isFinished()) {
-                    assignedCloudlets.add(cl);
-                }
-            }
-            // make the sum of the execution times for all the cloudlets assigned to this VM
-            double lastFinishTime = getLastFinishTime(vm, assignedCloudlets);
-
-            lastFinishTimes[(int) vm.getId()] = lastFinishTime;
-        }
-
-        // compute the heuristic information based on the last finish time for each VM
-        double lastFinishTotal = 0.0;
-        for (double lastFinishTime : lastFinishTimes) {
-            lastFinishTotal += lastFinishTime;
-        }
-
-        double[] desirability = new double[vmList.size()];
-        for (Vm vm : vmList) {
-            int vmId = (int) vm.getId();
-            if (lastFinishTotal > 0) {
-                // if the last finish time is greater than the cloudlet's deadline, set the probability to 0.1
-                if (lastFinishTimes[vmId] + cloudlet.getLength()/vm.getMips() > cloudlet.getDeadline()) {
-                    desirability[vmId] = 0.1;
-                } else {
-                    desirability[vmId] = 1 + 3 * (lastFinishTimes[vmId] / lastFinishTotal);
-                }
-            }
-        }
-
-        // Step 1: Extract pheromone levels for this cloudlet
-        double total = 0.0;
-
-        for (Vm vm : vmList) {
-            int vmId = (int) vm.getId();
-            total += pow(pheromoneMatrix[cloudletId][vmId], PHER_INF) * pow(desirability[vmId], HEUR_INF);
-        }
-
-        // Step 2: Normalize to probabilities
-        double[] probabilities = new double[vmList.size()];
-        for (Vm vm : vmList) {
-            int vmId = (int) vm.getId();
-            probabilities[vmId] = (pow(pheromoneMatrix[cloudletId][vmId], PHER_INF) * pow(desirability[vmId], HEUR_INF)) / total;
-        }
-
-        // Step 3: Roulette wheel selection
-        double rand = Math.random();
-        double cumulative = 0.0;
-        for (Vm vm : vmList) {
-            int vmId = (int) vm.getId();
-            cumulative += probabilities[vmId];
-            if (rand <= cumulative) {
-                return vm; // Return the selected VM based on pheromone probabilities
-            }
-        }
-
-        // Edge case: fallback
-        return vmList.get(vmList.size() - 1);
-    }
-
-    private static double getLastFinishTime(Vm vm, List<DeadlineCloudlet> assignedCloudlets) {
-        double lastFinishTime = 0.0;
-        for (DeadlineCloudlet cl : assignedCloudlets) {
-            if (lastFinishTime > cl.getSubmissionDelay())
-                lastFinishTime += cl.getLength() / vm.getMips();
-            else
-                lastFinishTime = cl.getSubmissionDelay()+ cl.getLength() / vm.getMips();
-        }
-        return lastFinishTime;
-    }
-
-    protected double[][] initializePheromoneMatrix() {
-        double[][] pheromoneMatrix = new double[cloudletList.size()][vmList.size()];
-        for (int i = 0; i < cloudletList.size(); i++) {
-            for (int j = 0; j < vmList.size(); j++) {
-                pheromoneMatrix[i][j] = 1.0; // Initialize pheromones uniformly
-            }
-        }
-        return pheromoneMatrix;
-    }
-
-    protected void evaporatePheromones(double[][] pheromoneMatrix) {
-        for (int i = 0; i < pheromoneMatrix.length; i++) {
-            for (int j = 0; j < pheromoneMatrix[i].length; j++) {
-                pheromoneMatrix[i][j] *= (1 - evaporationRate); // Evaporate pheromone
-                // Ensure pheromone levels do not go below a minimum threshold
-                if (pheromoneMatrix[i][j] < MIN_PHEROMONE_LEVEL) {
-                    pheromoneMatrix[i][j] = MIN_PHEROMONE_LEVEL; // Minimum pheromone level
-                }
-            }
-        }
-    }
-
-    protected void updatePheromones(Ant bestAnt, double[][] pheromoneMatrix) {
-
-        for (Map.Entry<DeadlineCloudlet, Vm> entry : bestAnt.getAllocation().entrySet()) {
-            DeadlineCloudlet cl = entry.getKey();
-            Vm vm = entry.getValue();
-            int cloudletId = (int) cl.getId();
-            int vmId = (int) vm.getId();
-
-            // Deposit pheromone: inversely proportional to fitness (e.g., makespan or SLA violations)
-            double deltaPheromone = 0.1 * ((TOTAL_CLOUDLETS) - bestAnt.getNumberViolations());
-            pheromoneMatrix[cloudletId][vmId] += deltaPheromone;
-            pheromoneMatrix[cloudletId][vmId] = Math.min(pheromoneMatrix[cloudletId][vmId], MAX_PHEROMONE_LEVEL); // Cap pheromone levels
-        }
-    }
-
-    protected List<Ant> createAnts() {
-        List<Ant> ants = new ArrayList<>();
-
-        for (int i = 0; i < numAnts; i++) {
-            Ant ant = new Ant();
-            ants.add(ant);
-        }
-
-        return ants;
-    }
-
-    // higher is better. After the ant sends the jobs, and the simulation is done, we evaluate the ant's performance
-    // based on the number of SLA violations and the makespan.
-    protected double evaluateAnt(List<Cloudlet> finished) {
-
-        int violations = 0;
-        double makespan = 0.0;
-
-        for (Cloudlet cl : finished) {
-            makespan = Math.max(makespan, cl.getFinishTime());
-
-            if (cl instanceof DeadlineCloudlet dc &&
-                    dc.getFinishTime() > dc.getDeadline()) {
-                violations++;
-            }
-        }
-
-        return (double) 1 / (1 + violations) + 0.01 * (((double) (CLOUDLET_LENGTH_MAX * (TOTAL_CLOUDLETS)) / 1000) / makespan); // Fitness function
-    }
-
-    protected int numberOfViolations(DatacenterBroker broker) {
-        int violations = 0;
-
-        for (Cloudlet cl : broker.getCloudletFinishedList()) {
-            if (cl instanceof DeadlineCloudlet dc) {
-                double finish = dc.getFinishTime();
-                double deadline = dc.getDeadline();
-                boolean metDeadline = finish <= deadline;
-
-                if (!metDeadline) violations++;
-            }
-        }
-
-        return violations; // Lower fitness for fewer violations
-    }
-}
-
-
-class Ant {
-    protected final Map<DeadlineCloudlet, Vm> allocation = new HashMap<>();
-    protected double fitness;
-    protected List<DeadlineCloudlet> cloudletsFinished;
-    protected int numberViolations;
-
-    public void assign(DeadlineCloudlet cl, Vm vm) {
-        allocation.put(cl, vm);
-    }
-
-    public Map<DeadlineCloudlet, Vm> getAllocation() {
-        return allocation;
-    }
-
-    public double getFitness() {
-        return fitness;
-    }
-
-    public void setFitness(double fit) {
-        this.fitness = fit;
-    }
-
-    public void setCloudletsFinished(List<DeadlineCloudlet> cloudletsFinished) {
-        this.cloudletsFinished = cloudletsFinished;
-    }
-
-    public int getNumberViolations() {
-        return numberViolations;
-    }
-
-    public void setNumberViolations(int numberViolations) {
-        this.numberViolations = numberViolations;
-    }
-
-}
+package org.APD.Algorithms;
+
+import ch.qos.logback.classic.Level;
+import org.APD.AlgorithmResult;
+import org.APD.RelevantDataForAlgorithms;
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.APD.DeadlineCloudlet;
+import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.util.Log;
+import org.cloudsimplus.vms.Vm;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import static java.util.Comparator.comparingLong;
+
+public class ACOAlgorithm extends BaseSchedulingAlgorithm {
+
+    protected final int numAnts; // Number of ants
+    protected final double evaporationRate; // Pheromone evaporation rate
+    protected final double MIN_PHEROMONE_LEVEL = 0.8;
+    protected final double MAX_PHEROMONE_LEVEL = 10.0; // Maximum pheromone level
+
+    protected final int iterations; // Number of iterations for the algorithm
+
+    protected int PHER_INF = 1; // exponent of the pheromone in the selection weight
+    protected int HEUR_INF = 2; // exponent of the heuristic in the selection weight
+
+    /**
+     * How an ant's allocation is scored during the search.
+     * {@link #SIMULATION} runs a full CloudSim Plus simulation per ant,
+     * {@link #SURROGATE} replays the allocation through a {@link SpaceSharedSurrogate}.
+     * The final plan is always run through CloudSim Plus.
+     */
+    public enum EvaluationMode { SIMULATION, SURROGATE }
+
+    protected EvaluationMode evaluationMode = EvaluationMode.SIMULATION;
+    // in SURROGATE mode, the best k ants of each iteration are re-scored with a full simulation
+    protected int fullSimulationTopK = 0;
+    // in SURROGATE mode, simulate every ant too and record how far the surrogate fitness is from the real one
+    protected boolean validateSurrogate = false;
+    // in SURROGATE mode, score all ants of an iteration together with a BatchScorer once they are built
+    protected boolean batchScoring = false;
+
+    private int validatedAnts;
+    private double totalSurrogateError;
+    private double maxSurrogateError;
+    private SurrogateValidation lastSurrogateValidation;
+
+    // when set, the ants of an iteration are built and scored concurrently on this pool
+    protected ForkJoinPool antPool;
+    // every ant draws from its own stream split from this seed, so a run is reproducible for any thread count
+    protected long seed = ThreadLocalRandom.current().nextLong();
+
+    // best allocation over all iterations, kept up to date by copying into the same arrays
+    protected Ant bestSoFar;
+    // iterations the last run actually performed, lower than iterations if it stopped early
+    protected int iterationsUsed;
+
+    // when positive, ants draw from each cloudlet's top-k VMs instead of scanning all of them
+    protected int candidateListSize = 0;
+    // rebuilt once per iteration, read by all ants of that iteration
+    protected CandidateLists candidateLists;
+
+    // when set, runs start from the trails saved for the same scenario and save theirs at the end
+    protected Path pheromoneSnapshotDirectory;
+    // iterations of a run that could be warm-started from a snapshot, 0 to keep iterations
+    protected int warmStartIterations = 0;
+    // whether the current run's trails came from a snapshot
+    protected boolean warmStarted;
+
+    public static void main(String[] args) {
+        Log.setLevel(Level.OFF);
+        new ACOAlgorithm();
+    }
+
+    // Optional: keep a default constructor for compatibility
+    public ACOAlgorithm() {
+        this(15, 10, 0.2);
+    }
+
+    public ACOAlgorithm(int numAnts, int iterations, double evaporationRate) {
+        this.numAnts = numAnts;
+        this.iterations = iterations;
+        this.evaporationRate = evaporationRate;
+//        runAlgorithm();
+
+//        vmList = createVms();
+//        cloudletList = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs();
+//        algorithmACO();
+//
+//        System.out.println("------------------------------- SIMULATION FOR SCHEDULING INTERVAL = " + SCHEDULING_INTERVAL + " -------------------------------");
+//        final List<DeadlineCloudlet> cloudletFinishedList = broker0.getCloudletFinishedList();
+//        final Comparator<DeadlineCloudlet> hostComparator = comparingLong(cl -> cl.getVm().getHost().getId());
+//        cloudletFinishedList.sort(hostComparator.thenComparing(cl -> cl.getVm().getId()));
+//
+//        new CloudletsTableBuilder(cloudletFinishedList).build();
+//        printHostsCpuUtilizationAndPowerConsumption(hostList);
+//        printVmsCpuUtilizationAndPowerConsumption(vmList);
+//
+//        double makespan = cloudletFinishedList.stream()
+//                .mapToDouble(Cloudlet::getFinishTime)
+//                .max()
+//                .orElse(0.0);
+//
+//        System.out.printf("📌 Makespan (time of last cloudlet finish): %.2f seconds\n", makespan);
+//
+//        printSLAViolations(broker0.getCloudletFinishedList());
+
+    }
+
+    @Override
+    public AlgorithmResult run(RelevantDataForAlgorithms input) {
+        copyGivenDataLocally(input);
+
+        algorithmACO();
+
+        return new AlgorithmResult(getName(),
+                cloudletList,
+                hostList,
+                vmList,
+                broker0.getCloudletFinishedList(),
+                0);
+    }
+
+    private void  algorithmACO() {
+
+        simulation = new CloudSimPlus();
+//        hostList = new ArrayList<>(HOSTS);
+        Datacenter datacenter0 = createDatacenter(simulation, hostList);
+        broker0 = new DatacenterBrokerSimple(simulation);
+
+        PheromoneMatrix pheromoneMatrix = initializePheromoneMatrix();
+
+        // primitive view of the workload, used to build every ant and, in SURROGATE mode, to score it
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(cloudletList, vmList);
+        boolean useSurrogate = evaluationMode == EvaluationMode.SURROGATE;
+
+        warmStarted = pheromoneSnapshotDirectory != null && loadPheromoneSnapshot(pheromoneMatrix, model);
+        validatedAnts = 0;
+        totalSurrogateError = 0;
+        maxSurrogateError = 0;
+
+        SplittableRandom runRandom = new SplittableRandom(seed);
+        Ant finalAnt = searchColony(model, pheromoneMatrix, useSurrogate, runRandom);
+
+        if (pheromoneSnapshotDirectory != null)
+            savePheromoneSnapshot(pheromoneMatrix, model);
+
+        // submit all the Vm's to the broker
+        broker0.submitVmList(vmList);
+        int[] finalAssignment = finalAnt.getVmAssignment();
+        for (int i = 0; i < cloudletList.size(); i++) {
+            DeadlineCloudlet cl = cloudletList.get(i);
+            cl.setVm(vmList.get(finalAssignment[i]));
+            broker0.submitCloudlet(cl);
+        }
+
+//        broker0.submitVmList(vmList);
+
+        simulation.start();
+
+        lastSurrogateValidation = useSurrogate && validateSurrogate
+                ? new SurrogateValidation(validatedAnts,
+                        validatedAnts == 0 ? 0 : totalSurrogateError / validatedAnts, maxSurrogateError)
+                : null;
+    }
+
+    /** Ants of one run scored both ways, with the mean and max absolute difference of their fitness. */
+    public record SurrogateValidation(int validatedAnts, double meanError, double maxError) { }
+
+    /**
+     * Runs the colony on the cloudlets of the model and returns a new ant built from the final trails.
+     * The trails are updated in place, so the caller can keep them for a later search.
+     * With {@code useSurrogate == false} every ant is simulated on the whole {@link #cloudletList},
+     * so the model must then cover that list.
+     */
+    protected Ant searchColony(SpaceSharedSurrogate model, PheromoneMatrix pheromoneMatrix,
+                               boolean useSurrogate, SplittableRandom runRandom) {
+        // the ants and their work arrays are allocated once and reset at the start of every iteration
+        List<Ant> ants = createAnts(model);
+        bestSoFar = new Ant(model);
+        List<Runnable> antTasks = new ArrayList<>(ants.size());
+
+        boolean batch = useSurrogate && batchScoring && !validateSurrogate;
+        BatchScorer batchScorer = batch ? new BatchScorer(model, ants.size()) : null;
+        int[] antGenes = batch ? new int[model.cloudletCount() * ants.size()] : null;
+
+        candidateLists = candidateListSize > 0 && candidateListSize < model.vmCount()
+                ? new CandidateLists(model.cloudletCount(), model.vmCount(), candidateListSize)
+                : null;
+
+        iterationsUsed = 0;
+        int iterationLimit = warmStarted && warmStartIterations > 0 ? warmStartIterations : iterations;
+        for (int iter = 0; iter < iterationLimit; iter++) {
+            iterationsUsed = iter + 1;
+            if (candidateLists != null)
+                candidateLists.rebuild(pheromoneMatrix, model, PHER_INF, HEUR_INF);
+
+            // split in ant order on this thread, so each ant gets the same stream whatever thread builds it
+            antTasks.clear();
+            for (Ant ant : ants) {
+                ant.reset();
+                SplittableRandom antRandom = runRandom.split();
+                antTasks.add(batch
+                        ? () -> constructAllocation(ant, pheromoneMatrix, model, antRandom)
+                        : () -> buildAndScoreAnt(ant, pheromoneMatrix, model, useSurrogate, antRandom));
+            }
+            runAll(antTasks);
+            if (batch)
+                scoreBatch(ants, batchScorer, antGenes);
+
+            List<Ant> candidates = ants;
+            if (useSurrogate && fullSimulationTopK > 0 && !validateSurrogate) {
+                // the surrogate only ranks the ants, the most promising ones get their real fitness;
+                // the best is picked among those alone, so bestSoFar only ever holds simulated fitness
+                candidates = ants.stream()
+                        .sorted(Comparator.comparingDouble(Ant::getFitness).reversed())
+                        .limit(fullSimulationTopK)
+                        .toList();
+                runAll(candidates.stream().<Runnable>map(ant -> () -> scoreWithSimulation(ant)).toList());
+            }
+
+            // from here on it is a single-threaded barrier step
+            Ant bestAnt = candidates.get(0);
+            for (Ant ant : candidates) {
+                if (ant.getFitness() > bestAnt.getFitness())
+                    bestAnt = ant;
+            }
+            boolean improved = bestAnt.getFitness() > bestSoFar.getFitness();
+            if (improved)
+                bestSoFar.copyFrom(bestAnt);
+
+            if (!updateTrails(iter, bestAnt, improved, pheromoneMatrix))
+                break;
+        }
+
+        // send a normal new ant to create the allocation
+        Ant finalAnt = new Ant(model);
+        if (candidateLists != null)
+            candidateLists.rebuild(pheromoneMatrix, model, PHER_INF, HEUR_INF);
+        constructAllocation(finalAnt, pheromoneMatrix, model, runRandom.split());
+        return finalAnt;
+    }
+
+    private boolean loadPheromoneSnapshot(PheromoneMatrix pheromoneMatrix, SpaceSharedSurrogate model) {
+        try {
+            PheromoneSnapshot snapshot = PheromoneSnapshot.load(pheromoneSnapshotDirectory, model);
+            if (snapshot == null)
+                return false;
+            snapshot.applyTo(pheromoneMatrix, model, MIN_PHEROMONE_LEVEL, MAX_PHEROMONE_LEVEL);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not load pheromone snapshot, starting cold: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void savePheromoneSnapshot(PheromoneMatrix pheromoneMatrix, SpaceSharedSurrogate model) {
+        try {
+            PheromoneSnapshot.capture(pheromoneMatrix, model, 1.0).save(pheromoneSnapshotDirectory);
+        } catch (IOException e) {
+            System.err.println("Could not save pheromone snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pheromone update done once per iteration, after all ants were scored.
+     * The basic colony evaporates and lets the iteration-best ant deposit.
+     *
+     * @param iterationBest the best ant of this iteration
+     * @param improved      whether that ant improved on the best-so-far one
+     * @return false to end the search before {@link #iterations} are done
+     */
+    protected boolean updateTrails(int iter, Ant iterationBest, boolean improved, PheromoneMatrix pheromoneMatrix) {
+        // evaporate pheromones
+        evaporatePheromones(pheromoneMatrix);
+
+        // update pheromones based on the best ant's allocation
+        updatePheromones(iterationBest, pheromoneMatrix);
+        return true;
+    }
+
+    /* runs the tasks on the ant pool and waits for all of them, or runs them in order if there is no pool */
+    private void runAll(List<Runnable> tasks) {
+        if (antPool == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+
+        List<ForkJoinTask<?>> submitted = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks)
+            submitted.add(antPool.submit(task));
+        for (ForkJoinTask<?> task : submitted)
+            task.join();
+    }
+
+    private void buildAndScoreAnt(Ant ant, PheromoneMatrix pheromoneMatrix, SpaceSharedSurrogate model,
+                                  boolean useSurrogate, RandomGenerator random) {
+        constructAllocation(ant, pheromoneMatrix, model, random);
+
+        if (useSurrogate) {
+            scoreWithSurrogate(ant, ant.surrogate);
+        } else {
+            scoreWithSimulation(ant);
+        }
+    }
+
+    /* lays the ants' assignments out cloudlet-major and scores them in one pass */
+    private void scoreBatch(List<Ant> ants, BatchScorer batchScorer, int[] antGenes) {
+        int P = ants.size();
+        for (int p = 0; p < P; p++) {
+            int[] vmAssignment = ants.get(p).getVmAssignment();
+            for (int c = 0; c < vmAssignment.length; c++)
+                antGenes[c * P + p] = vmAssignment[c];
+        }
+        batchScorer.score(antGenes, P);
+        for (int p = 0; p < P; p++) {
+            Ant ant = ants.get(p);
+            ant.setNumberViolations(batchScorer.violations(p));
+            ant.setFitness(fitness(batchScorer.violations(p), batchScorer.makespan(p)));
+        }
+    }
+
+    /**
+     * Walks the cloudlets in arrival order and picks a VM for each one.
+     * The ant keeps its own "next free time" per VM, updated in O(1) after every choice,
+     * so building a whole allocation costs O(N·M) and allocates nothing per step.
+     */
+    protected void constructAllocation(Ant ant, PheromoneMatrix pheromoneMatrix,
+                                       SpaceSharedSurrogate model, RandomGenerator random) {
+        int[] vmAssignment = ant.getVmAssignment();
+        double[] vmFreeAt = ant.vmFreeAt;
+        double[] heuristic = ant.heuristic;
+        double[] cumulative = ant.cumulative;
+        model.copyVmReadyTimes(vmFreeAt);
+
+        for (int i = 0; i < vmAssignment.length; i++) {
+            int vm = candidateLists == null
+                    ? selectVmBasedOnPheromone(i, model, pheromoneMatrix, vmFreeAt, heuristic, cumulative, random)
+                    : selectVmFromCandidates(i, model, pheromoneMatrix, vmFreeAt, heuristic, cumulative, random);
+            vmAssignment[i] = vm;
+            vmFreeAt[vm] = Math.max(vmFreeAt[vm], model.arrival(i)) + model.length(i) / model.mips(vm);
+        }
+    }
+
+    /**
+     * Draws the VM from the cloudlet's candidate list in O(1), retrying while the drawn
+     * VM would make the cloudlet late. Only when no candidate can meet the deadline does
+     * it fall back to the full roulette of {@link #selectVmBasedOnPheromone}.
+     */
+    protected int selectVmFromCandidates(int cloudletIndex, SpaceSharedSurrogate model, PheromoneMatrix pheromoneMatrix,
+                                         double[] vmFreeAt, double[] heuristic, double[] cumulative, RandomGenerator random) {
+        int vm = candidateLists.sample(cloudletIndex, random);
+        if (meetsDeadline(cloudletIndex, vm, model, vmFreeAt))
+            return vm;
+
+        int onTime = -1;
+        for (int c = 0; c < candidateLists.size() && onTime < 0; c++) {
+            int candidate = candidateLists.candidate(cloudletIndex, c);
+            if (meetsDeadline(cloudletIndex, candidate, model, vmFreeAt))
+                onTime = candidate;
+        }
+        if (onTime < 0)
+            return selectVmBasedOnPheromone(cloudletIndex, model, pheromoneMatrix, vmFreeAt, heuristic, cumulative, random);
+
+        // at least one candidate is on time, so a few more draws will very likely hit one
+        for (int attempt = 0; attempt < 4 * candidateLists.size(); attempt++) {
+            vm = candidateLists.sample(cloudletIndex, random);
+            if (meetsDeadline(cloudletIndex, vm, model, vmFreeAt))
+                return vm;
+        }
+        return onTime;
+    }
+
+    private static boolean meetsDeadline(int cloudletIndex, int vm, SpaceSharedSurrogate model, double[] vmFreeAt) {
+        double start = Math.max(vmFreeAt[vm], model.arrival(cloudletIndex));
+        return start + model.length(cloudletIndex) / model.mips(vm) <= model.deadline(cloudletIndex);
+    }
+
+    /* scores the ant analytically, and against a real run too if validation is on */
+    private void scoreWithSurrogate(Ant ant, SpaceSharedSurrogate surrogate) {
+        int violations = surrogate.evaluate(ant.getVmAssignment());
+        double fitness = fitness(violations, surrogate.getLastMakespan());
+        ant.setFitness(fitness);
+        ant.setNumberViolations(violations);
+
+        if (validateSurrogate) {
+            scoreWithSimulation(ant);
+            recordSurrogateError(Math.abs(ant.getFitness() - fitness));
+        }
+    }
+
+    private synchronized void recordSurrogateError(double error) {
+        validatedAnts++;
+        totalSurrogateError += error;
+        maxSurrogateError = Math.max(maxSurrogateError, error);
+    }
+
+    /* runs the ant's allocation on cloned entities in its own CloudSim Plus instance and scores the result */
+    private void scoreWithSimulation(Ant ant) {
+        CloudSimPlus sim = new CloudSimPlus();
+        Datacenter dc = createDatacenter(sim, copyHosts(hostList));
+        DatacenterBroker broker = new DatacenterBrokerSimple(sim);
+
+        List<Vm> vmClone = copyVMs(vmList);
+        List<DeadlineCloudlet> cloudletClone = copyCloudlets(cloudletList);
+        broker.submitVmList(vmClone);
+
+        int[] vmAssignment = ant.getVmAssignment();
+        for (int i = 0; i < cloudletClone.size(); i++) {
+            DeadlineCloudlet cl = cloudletClone.get(i);
+            cl.setVm(vmClone.get(vmAssignment[i]));
+            broker.submitCloudlet(cl);
+        }
+
+        sim.start();
+
+        // Evaluate performance
+        ant.setFitness(evaluateAnt(broker.getCloudletFinishedList()));
+        ant.setNumberViolations(numberOfViolations(broker));
+    }
+
+    public ACOAlgorithm setEvaluationMode(EvaluationMode evaluationMode) {
+        this.evaluationMode = Objects.requireNonNull(evaluationMode);
+        return this;
+    }
+
+    public ACOAlgorithm setFullSimulationTopK(int fullSimulationTopK) {
+        this.fullSimulationTopK = Math.max(0, fullSimulationTopK);
+        return this;
+    }
+
+    /**
+     * In SURROGATE mode, builds all ants of an iteration first and then scores them together
+     * with a {@link BatchScorer} on the calling thread. Ignored while validating the surrogate.
+     */
+    public ACOAlgorithm setBatchScoring(boolean batchScoring) {
+        this.batchScoring = batchScoring;
+        return this;
+    }
+
+    public ACOAlgorithm setValidateSurrogate(boolean validateSurrogate) {
+        this.validateSurrogate = validateSurrogate;
+        return this;
+    }
+
+    /**
+     * Builds and scores the ants of each iteration in parallel on the given pool.
+     * Pheromone evaporation and deposit stay on the calling thread.
+     * Passing {@code null} restores the sequential behaviour.
+     */
+    public ACOAlgorithm setAntPool(ForkJoinPool antPool) {
+        this.antPool = antPool;
+        return this;
+    }
+
+    /**
+     * Restricts each decision to the {@code k} VMs with the highest pheromone × static heuristic,
+     * sampled with an alias table. {@code 0}, or a value not below the VM count, uses every VM.
+     * <p>
+     * Only worth it when {@code k} is well below the VM count: the lists are rebuilt every iteration
+     * in O(N·M). In {@code CandidateListBenchmark} (2,000 cloudlets, {@code k = 16}, counted for 15 ants
+     * plus one rebuild per iteration) candidate mode was about 2x slower than the full roulette on 10 VMs,
+     * about 2x faster on 100, 4-5x on 1,000 and 10x on 10,000.
+     * </p>
+     */
+    public ACOAlgorithm setCandidateListSize(int k) {
+        this.candidateListSize = Math.max(0, k);
+        return this;
+    }
+
+    /** Exponents α (pheromone) and β (heuristic) of the selection weight {@code τ^α · η^β}. */
+    public ACOAlgorithm setInfluence(int pheromoneInfluence, int heuristicInfluence) {
+        if (pheromoneInfluence < 0 || heuristicInfluence < 0)
+            throw new IllegalArgumentException("Influence exponents must not be negative");
+        this.PHER_INF = pheromoneInfluence;
+        this.HEUR_INF = heuristicInfluence;
+        return this;
+    }
+
+    /**
+     * Directory of {@link PheromoneSnapshot} files. Each run starts from the snapshot of its
+     * scenario if there is one, and saves its final trails for the next run.
+     * {@code null} turns snapshots off.
+     */
+    public ACOAlgorithm setPheromoneSnapshotDirectory(Path pheromoneSnapshotDirectory) {
+        this.pheromoneSnapshotDirectory = pheromoneSnapshotDirectory;
+        return this;
+    }
+
+    /** Iterations to run instead of {@link #iterations} when the trails came from a snapshot; 0 keeps the full count. */
+    public ACOAlgorithm setWarmStartIterations(int warmStartIterations) {
+        this.warmStartIterations = Math.max(0, warmStartIterations);
+        return this;
+    }
+
+    public boolean isWarmStarted() {
+        return warmStarted;
+    }
+
+    @Override
+    public ACOAlgorithm setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /* a run that may warm-start also depends on the snapshots on disk */
+    @Override
+    public String cacheKey() {
+        if (pheromoneSnapshotDirectory != null)
+            return null;
+        return String.format("%s ants=%d iterations=%d evaporation=%s pheromone=[%s, %s] alpha=%d beta=%d "
+                        + "mode=%s topK=%d validate=%b batch=%b candidates=%d seed=%d",
+                getClass().getName(), numAnts, iterations, evaporationRate, MIN_PHEROMONE_LEVEL, MAX_PHEROMONE_LEVEL,
+                PHER_INF, HEUR_INF, evaluationMode, fullSimulationTopK, validateSurrogate, batchScoring,
+                candidateListSize, seed);
+    }
+
+    /**
+     * How far the surrogate fitness was from the simulated one in the last run; {@code null} unless
+     * that run validated the surrogate.
+     */
+    public SurrogateValidation getLastSurrogateValidation() {
+        return lastSurrogateValidation;
+    }
+
+    /**
+     * Picks the VM for the cloudlet at the given index.
+     *
+     * @param vmFreeAt   the time each VM finishes the cloudlets this ant already gave it
+     * @param heuristic  scratch array of VM-count size, overwritten on every call
+     * @param cumulative scratch array of VM-count size, overwritten on every call
+     * @return the index of the selected VM
+     */
+    public int selectVmBasedOnPheromone(int cloudletIndex, SpaceSharedSurrogate model, PheromoneMatrix pheromoneMatrix,
+                                        double[] vmFreeAt, double[] heuristic, double[] cumulative, RandomGenerator random) {
+        int vmCount = vmFreeAt.length;
+        double length = model.length(cloudletIndex);
+        double deadline = model.deadline(cloudletIndex);
+
+        // compute the heuristic information based on the last finish time for each VM
+        double lastFinishTotal = 0.0;
+        for (double lastFinishTime : vmFreeAt) {
+            lastFinishTotal += lastFinishTime;
+        }
+
+        // no VM has work yet: every desirability is 0 and the roulette below always fell through to the last VM
+        if (lastFinishTotal <= 0) {
+            return vmCount - 1;
+        }
+
+        for (int vm = 0; vm < vmCount; vm++) {
+            // if the cloudlet would finish after its deadline on this VM, the VM is barely desirable
+            if (vmFreeAt[vm] + length / model.mips(vm) > deadline) {
+                heuristic[vm] = 0.1;
+            } else {
+                heuristic[vm] = 1 + 3 * (vmFreeAt[vm] / lastFinishTotal);
+            }
+        }
+
+        // Step 1: prefix sums of pheromone^PHER_INF * desirability^HEUR_INF
+        double total = pheromoneMatrix.cumulativeWeights(cloudletIndex, heuristic, PHER_INF, HEUR_INF, cumulative);
+
+        // Step 2: Roulette wheel selection by binary search over the prefix sums
+        return PheromoneMatrix.sample(cumulative, vmCount, random.nextDouble() * total);
+    }
+
+    protected PheromoneMatrix initializePheromoneMatrix() {
+        return new PheromoneMatrix(cloudletList.size(), vmList.size(), 1.0); // Initialize pheromones uniformly
+    }
+
+    protected void evaporatePheromones(PheromoneMatrix pheromoneMatrix) {
+        // Evaporate pheromone, never going below the minimum threshold
+        pheromoneMatrix.evaporate(evaporationRate, MIN_PHEROMONE_LEVEL);
+    }
+
+    protected void updatePheromones(Ant bestAnt, PheromoneMatrix pheromoneMatrix) {
+
+        int[] vmAssignment = bestAnt.getVmAssignment();
+        // Deposit pheromone: inversely proportional to fitness (e.g., makespan or SLA violations)
+        double deltaPheromone = 0.1 * ((TOTAL_CLOUDLETS) - bestAnt.getNumberViolations());
+
+        for (int cloudlet = 0; cloudlet < vmAssignment.length; cloudlet++) {
+            pheromoneMatrix.deposit(cloudlet, vmAssignment[cloudlet], deltaPheromone, MAX_PHEROMONE_LEVEL); // Cap pheromone levels
+        }
+    }
+
+    protected List<Ant> createAnts(SpaceSharedSurrogate model) {
+        List<Ant> ants = new ArrayList<>(numAnts);
+
+        for (int i = 0; i < numAnts; i++) {
+            ants.add(new Ant(model));
+        }
+
+        return ants;
+    }
+
+    // higher is better. After the ant sends the jobs, and the simulation is done, we evaluate the ant's performance
+    // based on the number of SLA violations and the makespan.
+    protected double evaluateAnt(List<Cloudlet> finished) {
+
+        int violations = 0;
+        double makespan = 0.0;
+
+        for (Cloudlet cl : finished) {
+            makespan = Math.max(makespan, cl.getFinishTime());
+
+            if (cl instanceof DeadlineCloudlet dc &&
+                    dc.getFinishTime() > dc.getDeadline()) {
+                violations++;
+            }
+        }
+
+        return fitness(violations, makespan);
+    }
+
+    public int getIterationsUsed() {
+        return iterationsUsed;
+    }
+
+    @Override
+    public String getName() {
+        return "ACO";
+    }
+
+    /** Fitness of the best ant seen over all iterations of the last run. */
+    public double getBestFitness() {
+        return bestSoFar == null ? Double.NEGATIVE_INFINITY : bestSoFar.getFitness();
+    }
+
+    protected double fitness(int violations, double makespan) {
+        return (double) 1 / (1 + violations) + 0.01 * (((double) (CLOUDLET_LENGTH_MAX * (TOTAL_CLOUDLETS)) / 1000) / makespan); // Fitness function
+    }
+
+    protected int numberOfViolations(DatacenterBroker broker) {
+        int violations = 0;
+
+        for (Cloudlet cl : broker.getCloudletFinishedList()) {
+            if (cl instanceof DeadlineCloudlet dc) {
+                double finish = dc.getFinishTime();
+                double deadline = dc.getDeadline();
+                boolean metDeadline = finish <= deadline;
+
+                if (!metDeadline) violations++;
+            }
+        }
+
+        return violations; // Lower fitness for fewer violations
+    }
+}
+
@@ -1,356 +1,368 @@
-//package org.APD.Algorithms;
-//
-//import ch.qos.logback.classic.Level;
-//import org.APD.AlgorithmResult;
-//import org.APD.PowerModels.PowerModelPstateProcessor_2GHz_Via_C7_M;
-//import org.APD.PowerModels.PowerModelPStateProcessor;
-//import org.APD.RelevantDataForAlgorithms;
-//import org.cloudsimplus.brokers.DatacenterBroker;
-//import org.cloudsimplus.brokers.DatacenterBrokerSimple;
-//import org.APD.DeadlineCloudlet;
-//import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
-//import org.cloudsimplus.cloudlets.Cloudlet;
-//import org.cloudsimplus.core.CloudSimPlus;
-//import org.cloudsimplus.datacenters.Datacenter;
-//import org.cloudsimplus.hosts.Host;
-//import org.cloudsimplus.util.Log;
-//import org.cloudsimplus.vms.Vm;
-//
-//import java.util.*;
-//
-//import static java.lang.Math.pow;
-//import static java.util.Comparator.comparingLong;
-//
-//public class ACOAlgorithmEnergyHeuristic extends BaseSchedulingAlgorithm {
-//
-//    protected final int numAnts = 20; // Number of ants
-//    protected final double evaporationRate = 0.2; // Pheromone evaporation rate
-//    protected final double MIN_PHEROMONE_LEVEL = 0.8;
-//    protected final double MAX_PHEROMONE_LEVEL = 10.0; // Maximum pheromone level
-//
-//    protected final int iterations = 70; // Number of iterations for the algorithm
-//
-//    protected final int PHER_INF = 1;
-//    protected final int HEUR_INF = 2;
-//
-//    public static void main(String[] args) {
-//        Log.setLevel(Level.OFF);
-//        new ACOAlgorithm();
-//    }
-//
-//    public ACOAlgorithmEnergyHeuristic() {
-//
-////        vmList = createVms();
-////        cloudletList = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs();
-////        algorithmACOEnergyHeur();
-////
-////        System.out.println("------------------------------- SIMULATION FOR SCHEDULING INTERVAL = " + SCHEDULING_INTERVAL + " -------------------------------");
-////        final List<DeadlineCloudlet> cloudletFinishedList = broker0.getCloudletFinishedList();
-////        final Comparator<DeadlineCloudlet> hostComparator = comparingLong(cl -> cl.getVm().getHost().getId());
-////        cloudletFinishedList.sort(hostComparator.thenComparing(cl -> cl.getVm().getId()));
-////
-////        new CloudletsTableBuilder(cloudletFinishedList).build();
-////        printHostsCpuUtilizationAndPowerConsumption(hostList);
-////        printVmsCpuUtilizationAndPowerConsumption(vmList);
-////
-////        double makespan = cloudletFinishedList.stream()
-////                .mapToDouble(Cloudlet::getFinishTime)
-////                .max()
-////                .orElse(0.0);
-////
-////        System.out.printf("📌 Makespan (time of last cloudlet finish): %.2f seconds\n", makespan);
-////
-////        printSLAViolations(broker0.getCloudletFinishedList());
-//
-//    }
-//
-//    @Override
-//    public AlgorithmResult run(RelevantDataForAlgorithms input) {
-//        copyGivenDataLocally(input);
-//
-//        algorithmACOEnergyHeur();
-//
-//        return new AlgorithmResult(getName(),
-//                cloudletList,
-//                hostList,
-//                vmList,
-//                broker0.getCloudletFinishedList(),
-//                0);
-//    }
-//
-//    private void  algorithmACOEnergyHeur() {
-//
-//        simulation = new CloudSimPlus();
-//        hostList = new ArrayList<>(HOSTS);
-//        Datacenter datacenter0 = createDatacenter(simulation, hostList);
-//        broker0 = new DatacenterBrokerSimple(simulation);
-//
-//        double[][] pheromoneMatrix = initializePheromoneMatrix();
-//
-//        for (int iter = 0; iter < iterations; iter++) {
-//            List<Ant> ants;
-//            ants = createAnts();
-//            for (Ant ant : ants) {
-//                CloudSimPlus sim = new CloudSimPlus();
-//                List<Host> hostlst = new ArrayList<>(HOSTS);
-//
-//                Datacenter dc = createDatacenter(sim, hostlst);
-//                DatacenterBroker broker = new DatacenterBrokerSimple(sim);
-//
-//                List<Vm> vmClone = copyVMs(vmList);
-//                List<DeadlineCloudlet> cloudletClone = copyCloudlets(cloudletList);
-//
-//                broker.submitVmList(vmClone);
-//
-//                for (DeadlineCloudlet cl : cloudletClone) {
-//                    Vm selectedVm = selectVmBasedOnPheromone(cl, vmClone, pheromoneMatrix, cloudletClone);
-//                    cl.setVm(selectedVm);
-//                    ant.assign(cl, selectedVm);
-//                    broker.submitCloudlet(cl);
-//                }
-//
-//                sim.start();
-//
-//                // Evaluate performance
-//                double fitness = evaluateAnt(broker.getCloudletFinishedList());
-//                ant.setFitness(fitness);
-//                ant.setNumberViolations(numberOfViolations(broker));
-//                ant.setCloudletsFinished(broker.getCloudletFinishedList());
-//            }
-//            // evaporate pheromones
-//            evaporatePheromones(pheromoneMatrix);
-//
-//            Ant bestAnt = ants.stream()
-//                    .max(Comparator.comparingDouble(Ant::getFitness))
-//                    .orElseThrow();
-//
-//            // update pheromones based on the best ant's allocation
-//            updatePheromones(bestAnt, pheromoneMatrix);
-//        }
-//
-//
-//        // submit all the Vm's to the broker
-//        broker0.submitVmList(vmList);
-//        // send a normal new ant to create the allocation
-//        Ant ant = new Ant();
-//        for (DeadlineCloudlet cl : cloudletList) {
-//            Vm selectedVm = selectVmBasedOnPheromone(cl, vmList, pheromoneMatrix, cloudletList);
-//            cl.setVm(selectedVm);
-//            ant.assign(cl, selectedVm);
-//            broker0.submitCloudlet(cl);
-//        }
-//
-//        broker0.submitVmList(vmList);
-//
-//        simulation.start();
-//    }
-//
-//    public Vm selectVmBasedOnPheromone(DeadlineCloudlet cloudlet, List<Vm> vmList, double[][] pheromoneMatrix, List<DeadlineCloudlet> cloudletList) {
-//
-//        // create a pheromone matrix copy
-//        double[][] pheromoneMatrixCopy = new double[pheromoneMatrix.length][pheromoneMatrix[0].length];
-//        for (int i = 0; i < pheromoneMatrix.length; i++) {
-//            System.arraycopy(pheromoneMatrix[i], 0, pheromoneMatrixCopy[i], 0, pheromoneMatrix[i].length);
-//        }
-//
-//        int cloudletId = (int) cloudlet.getId();
-//
-//        // last finish times for each VM
-//        double[] lastFinishTimes = new double[vmList.size()];
-//        // for each vm, get the number of cloudlets it has and when the last one finishes
-//        for (Vm vm : vmList) {
-//            // get all the cloudlets assigned to this VM
-//            List<DeadlineCloudlet> assignedCloudlets = new ArrayList<>();
-//            for (DeadlineCloudlet cl : cloudletList) {
-//                cl.getVm();
-//                if (cl.getVm().getId() == vm.getId() && !cl.isFinished()) {
-//                    assignedCloudlets.add(cl);
-//                }
-//            }
-//            // make the sum of the execution times for all the cloudlets assigned to this VM
-//            double lastFinishTime = getLastFinishTime(vm, assignedCloudlets);
-//
-//            lastFinishTimes[(int) vm.getId()] = lastFinishTime;
-//        }
-//
-//        // compute the heuristic information based on the last finish time for each VM
-//        double lastFinishTotal = 0.0;
-//        for (double lastFinishTime : lastFinishTimes) {
-//            lastFinishTotal += lastFinishTime;
-//        }
-//
-//        double[] desirability = new double[vmList.size()];
-//        for (Vm vm : vmList) {
-//            int vmId = (int) vm.getId();
-//            if (lastFinishTotal > 0) {
-//                // if the last finish time is greater than the cloudlet's deadline, set the probability to 0.1
-//                if (lastFinishTimes[vmId] + cloudlet.getLength()/vm.getMips() > cloudlet.getDeadline()) {
-//                    desirability[vmId] = 0.1;
-//                } else {
-//                    desirability[vmId] = 1 + 3 * (lastFinishTimes[vmId] / lastFinishTotal);
-//                }
-//            }
-//        }
-//
-//        // Step 1: Extract pheromone levels for this cloudlet
-//        double total = 0.0;
-//
-//        for (Vm vm : vmList) {
-//            int vmId = (int) vm.getId();
-//            total += pow(pheromoneMatrix[cloudletId][vmId], PHER_INF) * pow(desirability[vmId], HEUR_INF);
-//        }
-//
-//        // Step 2: Normalize to probabilities
-//        double[] probabilities = new double[vmList.size()];
-//        for (Vm vm : vmList) {
-//            int vmId = (int) vm.getId();
-//            probabilities[vmId] = (pow(pheromoneMatrix[cloudletId][vmId], PHER_INF) * pow(desirability[vmId], HEUR_INF)) / total;
-//        }
-//
-//        // Step 3: Roulette wheel selection
-//        double rand = Math.random();
-//        double cumulative = 0.0;
-//        for (Vm vm : vmList) {
-//            int vmId = (int) vm.getId();
-//            cumulative += probabilities[vmId];
-//            if (rand <= cumulative) {
-//                return vm; // Return the selected VM based on pheromone probabilities
-//            }
-//        }
-//
-//        // Edge case: fallback
-//        return vmList.get(vmList.size() - 1);
-//    }
-//
-//    private static double getLastFinishTime(Vm vm, List<DeadlineCloudlet> assignedCloudlets) {
-//        double lastFinishTime = 0.0;
-//        for (DeadlineCloudlet cl : assignedCloudlets) {
-//            if (lastFinishTime > cl.getSubmissionDelay())
-//                lastFinishTime += cl.getLength() / vm.getMips();
-//            else
-//                lastFinishTime = cl.getSubmissionDelay()+ cl.getLength() / vm.getMips();
-//        }
-//        return lastFinishTime;
-//    }
-//
-//    protected double[][] initializePheromoneMatrix() {
-//        double[][] pheromoneMatrix = new double[cloudletList.size()][vmList.size()];
-//        for (int i = 0; i < cloudletList.size(); i++) {
-//            for (int j = 0; j < vmList.size(); j++) {
-//                pheromoneMatrix[i][j] = 1.0; // Initialize pheromones uniformly
-//            }
-//        }
-//        return pheromoneMatrix;
-//    }
-//
-//    protected void evaporatePheromones(double[][] pheromoneMatrix) {
-//        for (int i = 0; i < pheromoneMatrix.length; i++) {
-//            for (int j = 0; j < pheromoneMatrix[i].length; j++) {
-//                pheromoneMatrix[i][j] *= (1 - evaporationRate); // Evaporate pheromone
-//                // Ensure pheromone levels do not go below a minimum threshold
-//                if (pheromoneMatrix[i][j] < MIN_PHEROMONE_LEVEL) {
-//                    pheromoneMatrix[i][j] = MIN_PHEROMONE_LEVEL; // Minimum pheromone level
-//                }
-//            }
-//        }
-//    }
-//
-//    protected void updatePheromones(Ant bestAnt, double[][] pheromoneMatrix) {
-//
-//        for (Map.Entry<DeadlineCloudlet, Vm> entry : bestAnt.getAllocation().entrySet()) {
-//            DeadlineCloudlet cl = entry.getKey();
-//            Vm vm = entry.getValue();
-//            int cloudletId = (int) cl.getId();
-//            int vmId = (int) vm.getId();
-//
-//            // Deposit pheromone: inversely proportional to fitness (e.g., makespan or SLA violations)
-//            double deltaPheromone = 0.1 * ((TOTAL_CLOUDLETS) - bestAnt.getNumberViolations());
-//            pheromoneMatrix[cloudletId][vmId] += deltaPheromone;
-//            pheromoneMatrix[cloudletId][vmId] = Math.min(pheromoneMatrix[cloudletId][vmId], MAX_PHEROMONE_LEVEL); // Cap pheromone levels
-//        }
-//    }
-//
-//    protected List<Ant> createAnts() {
-//        List<Ant> ants = new ArrayList<>();
-//
-//        for (int i = 0; i < numAnts; i++) {
-//            Ant ant = new Ant();
-//            ants.add(ant);
-//        }
-//
-//        return ants;
-//    }
-//
-//    // higher is better. After the ant sends the jobs, and the simulation is done, we evaluate the ant's performance
-//    // based on the number of SLA violations and the makespan.
-//    protected double evaluateAnt(List<Cloudlet> finished) {
-//
-//        int violations = 0;
-//        double makespan = 0.0;
-//
-//        for (Cloudlet cl : finished) {
-//            makespan = Math.max(makespan, cl.getFinishTime());
-//
-//            if (cl instanceof DeadlineCloudlet dc &&
-//                    dc.getFinishTime() > dc.getDeadline()) {
-//                violations++;
-//            }
-//        }
-//
-//        return (double) 1 / (1 + violations) + 0.01 * (((double) (CLOUDLET_LENGTH_MAX * (TOTAL_CLOUDLETS)) / 1000) / makespan); // Fitness function
-//    }
-//
-//    protected int numberOfViolations(DatacenterBroker broker) {
-//        int violations = 0;
-//
-//        for (Cloudlet cl : broker.getCloudletFinishedList()) {
-//            if (cl instanceof DeadlineCloudlet dc) {
-//                double finish = dc.getFinishTime();
-//                double deadline = dc.getDeadline();
-//                boolean metDeadline = finish <= deadline;
-//
-//                if (!metDeadline) violations++;
-//            }
-//        }
-//
-//        return violations; // Lower fitness for fewer violations
-//    }
-//}
-//
-//
-//class AntEnergy {
-//    protected final Map<DeadlineCloudlet, Vm> allocation = new HashMap<>();
-//    protected final Map<PowerModelPStateProcessor, Integer> allocation_power = new HashMap<>();
-//    protected double fitness;
-//    protected List<DeadlineCloudlet> cloudletsFinished;
-//    protected int numberViolations;
-//
-//    public void assign(DeadlineCloudlet cl, Vm vm) {
-//        allocation.put(cl, vm);
-//    }
-//
-//    public Map<DeadlineCloudlet, Vm> getAllocation() {
-//        return allocation;
-//    }
-//
-//    public double getFitness() {
-//        return fitness;
-//    }
-//
-//    public void setFitness(double fit) {
-//        this.fitness = fit;
-//    }
-//
-//    public void setCloudletsFinished(List<DeadlineCloudlet> cloudletsFinished) {
-//        this.cloudletsFinished = cloudletsFinished;
-//    }
-//
-//    public int getNumberViolations() {
-//        return numberViolations;
-//    }
-//
-//    public void setNumberViolations(int numberViolations) {
-//        this.numberViolations = numberViolations;
-//    }
-//
-//}
+package org.APD.Algorithms;
+
+import org.APD.AlgorithmResult;
+import org.APD.RelevantDataForAlgorithms;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ACO whose ants choose a P-state for every host as well as a VM for every cloudlet, so one
+ * search looks for a low-energy plan that keeps the SLA instead of slowing hosts down run by run.
+ * <p>
+ * The construction graph has two layers. An ant first picks each host's P-state from the host's
+ * {@code PowerModelPStateProcessor.getPossiblePerformanceStates()}, then walks the cloudlets in
+ * arrival order and picks a VM for each one at the speeds those states give. Both decisions
+ * have their own trail and are drawn with weight {@code τ^α · η^β}:
+ * </p>
+ * <ul>
+ *     <li>for a host state, η is the mean deadline slack a cloudlet would have running alone on
+ *     the host at that speed, divided by the state's watts per MIPS;</li>
+ *     <li>for a VM, η is 0.1 if the cloudlet would be late there, otherwise its slack on the VM
+ *     times how efficient the VM's host is at the state the ant chose for it.</li>
+ * </ul>
+ * <p>
+ * Ants are scored on the {@link SpaceSharedSurrogate} and the {@link PStateModel}: the plan with
+ * the fewest violations over the SLA limit wins, and among those the one drawing the least energy.
+ * The best plan found is then applied to the hosts and simulated.
+ * </p>
+ */
+public class ACOAlgorithmEnergyHeuristic extends BaseSchedulingAlgorithm {
+
+    protected final int numAnts = 20; // Number of ants
+    protected final double evaporationRate = 0.2; // Pheromone evaporation rate
+    protected final double MIN_PHEROMONE_LEVEL = 0.8;
+    protected final double MAX_PHEROMONE_LEVEL = 10.0; // Maximum pheromone level
+
+    protected final int iterations = 70; // Number of iterations for the algorithm
+
+    protected final int PHER_INF = 1;
+    protected final int HEUR_INF = 2;
+
+    // every ant draws from its own stream split from this seed, so a run is reproducible for any thread count
+    private long seed = ThreadLocalRandom.current().nextLong();
+    // when set, the ants of an iteration are built and scored concurrently on this pool
+    private ForkJoinPool antPool;
+    // share of cloudlets allowed to miss their deadline before a plan is ranked by violations instead of energy
+    private double slaViolationLimit = 0;
+
+    /* static heuristics of the run */
+    private double[][] stateHeuristic; // [host][state]
+    private double[][] efficiency;     // [host][state], lowest watts per MIPS of the host over this state's
+
+    private AntEnergy lastBestAnt;
+
+    public ACOAlgorithmEnergyHeuristic() {
+    }
+
+    @Override
+    public AlgorithmResult run(RelevantDataForAlgorithms input) {
+        copyGivenDataLocally(input);
+
+        algorithmACOEnergyHeur();
+
+        return new AlgorithmResult(getName(),
+                cloudletList,
+                hostList,
+                vmList,
+                broker0.getCloudletFinishedList(),
+                0);
+    }
+
+    @Override
+    public String getName() {
+        return "ACO Energy";
+    }
+
+    private void algorithmACOEnergyHeur() {
+
+        // primitive view of the workload and of the hosts' P-states, every ant is built and scored on them
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(cloudletList, vmList);
+        PStateModel pStateModel = new PStateModel(hostList, vmList);
+
+        int hosts = pStateModel.hostCount();
+        int maxStates = 0;
+        for (int h = 0; h < hosts; h++)
+            maxStates = Math.max(maxStates, pStateModel.stateCount(h));
+        computeStateHeuristics(model, pStateModel);
+
+        PheromoneMatrix vmTrails = new PheromoneMatrix(model.cloudletCount(), model.vmCount(), 1.0);
+        PheromoneMatrix stateTrails = new PheromoneMatrix(hosts, maxStates, 1.0);
+        int allowed = (int) Math.floor(slaViolationLimit * model.cloudletCount());
+
+        List<AntEnergy> ants = new ArrayList<>(numAnts);
+        for (int i = 0; i < numAnts; i++)
+            ants.add(new AntEnergy(model, pStateModel, maxStates));
+        AntEnergy bestSoFar = new AntEnergy(model, pStateModel, maxStates);
+
+        SplittableRandom runRandom = new SplittableRandom(seed);
+        List<Runnable> antTasks = new ArrayList<>(numAnts);
+        for (int iter = 0; iter < iterations; iter++) {
+            // split in ant order on this thread, so each ant gets the same stream whatever thread builds it
+            antTasks.clear();
+            for (AntEnergy ant : ants) {
+                SplittableRandom antRandom = runRandom.split();
+                antTasks.add(() -> {
+                    constructPlan(ant, stateTrails, vmTrails, model, pStateModel, antRandom);
+                    ant.score(pStateModel, allowed);
+                });
+            }
+            runAll(antTasks);
+
+            // from here on it is a single-threaded barrier step
+            AntEnergy bestAnt = ants.get(0);
+            for (AntEnergy ant : ants) {
+                if (ant.isBetterThan(bestAnt))
+                    bestAnt = ant;
+            }
+            if (bestSoFar.fitness == Double.NEGATIVE_INFINITY || bestAnt.isBetterThan(bestSoFar))
+                bestSoFar.copyFrom(bestAnt);
+
+            // evaporate both trails, then let the iteration-best ant deposit on both decisions, ranked like
+            // isBetterThan: by its violations over the limit, then by its energy next to the best plan so far
+            vmTrails.evaporate(evaporationRate, MIN_PHEROMONE_LEVEL);
+            stateTrails.evaporate(evaporationRate, MIN_PHEROMONE_LEVEL);
+            double energyShare = bestAnt.energy > 0 ? Math.min(1, bestSoFar.energy / bestAnt.energy) : 1;
+            double deltaPheromone = 0.1 * (model.cloudletCount() - bestAnt.excessViolations) * energyShare;
+            for (int cloudlet = 0; cloudlet < bestAnt.vmAssignment.length; cloudlet++)
+                vmTrails.deposit(cloudlet, bestAnt.vmAssignment[cloudlet], deltaPheromone, MAX_PHEROMONE_LEVEL);
+            for (int h = 0; h < hosts; h++)
+                stateTrails.deposit(h, bestAnt.pStates[h], deltaPheromone, MAX_PHEROMONE_LEVEL);
+        }
+        lastBestAnt = bestSoFar;
+
+        // move the hosts to the chosen P-states and simulate the best plan on them
+        HostVmPair moved = pStateModel.apply(this, hostList, vmList, bestSoFar.pStates);
+        hostList = moved.hosts();
+        vmList = moved.vms();
+
+        simulation = new CloudSimPlus();
+        Datacenter datacenter0 = createDatacenter(simulation, hostList);
+        broker0 = new DatacenterBrokerSimple(simulation);
+        broker0.submitVmList(vmList);
+        for (int i = 0; i < cloudletList.size(); i++) {
+            cloudletList.get(i).setVm(vmList.get(bestSoFar.vmAssignment[i]));
+            broker0.submitCloudlet(cloudletList.get(i));
+        }
+
+        simulation.start();
+    }
+
+    /*
+     * η of every host state: the mean relative deadline slack of the cloudlets run alone on the host
+     * at that speed, over the state's watts per MIPS; and each state's efficiency for the VM layer
+     */
+    private void computeStateHeuristics(SpaceSharedSurrogate model, PStateModel pStateModel) {
+        int hosts = pStateModel.hostCount();
+        stateHeuristic = new double[hosts][];
+        efficiency = new double[hosts][];
+        for (int h = 0; h < hosts; h++) {
+            int states = pStateModel.stateCount(h);
+            stateHeuristic[h] = new double[states];
+            efficiency[h] = new double[states];
+            int vm = -1;
+            for (int j = 0; j < pStateModel.vmCount() && vm < 0; j++) {
+                if (pStateModel.hostOf(j) == h)
+                    vm = j;
+            }
+
+            double[] wattsPerMips = new double[states];
+            double lowest = Double.MAX_VALUE;
+            for (int s = 0; s < states; s++) {
+                double fullPower = pStateModel.staticPower(h, s) + pStateModel.dynamicPower(h, s);
+                double capacity = 0;
+                for (int j = 0; j < pStateModel.vmCount(); j++) {
+                    if (pStateModel.hostOf(j) == h)
+                        capacity += pStateModel.vmMips(j, s);
+                }
+                // a host without VMs only draws power, so only its watts count
+                wattsPerMips[s] = capacity > 0 ? fullPower / capacity : fullPower;
+                lowest = Math.min(lowest, wattsPerMips[s]);
+            }
+
+            for (int s = 0; s < states; s++) {
+                efficiency[h][s] = lowest / wattsPerMips[s];
+                double slack = 1;
+                if (vm >= 0 && model.cloudletCount() > 0) {
+                    slack = 0;
+                    for (int c = 0; c < model.cloudletCount(); c++) {
+                        double window = model.deadline(c) - model.arrival(c);
+                        if (window > 0)
+                            slack += Math.max(0, window - model.length(c) / pStateModel.vmMips(vm, s)) / window;
+                    }
+                    slack /= model.cloudletCount();
+                }
+                stateHeuristic[h][s] = (0.05 + slack) * efficiency[h][s];
+            }
+        }
+    }
+
+    /* picks every host's P-state, then a VM for every cloudlet in arrival order at the speeds chosen */
+    private void constructPlan(AntEnergy ant, PheromoneMatrix stateTrails, PheromoneMatrix vmTrails,
+                               SpaceSharedSurrogate model, PStateModel pStateModel, SplittableRandom random) {
+        int[] pStates = ant.pStates;
+        for (int h = 0; h < pStates.length; h++) {
+            int states = pStateModel.stateCount(h);
+            Arrays.fill(ant.stateWeights, 0);
+            System.arraycopy(stateHeuristic[h], 0, ant.stateWeights, 0, states);
+            double total = stateTrails.cumulativeWeights(h, ant.stateWeights, PHER_INF, HEUR_INF, ant.stateCumulative);
+            pStates[h] = PheromoneMatrix.sample(ant.stateCumulative, states, random.nextDouble() * total);
+        }
+
+        double[] vmMips = ant.vmMips;
+        pStateModel.vmMips(pStates, vmMips);
+        double[] vmFreeAt = ant.vmFreeAt;
+        double[] heuristic = ant.heuristic;
+        model.copyVmReadyTimes(vmFreeAt);
+        int[] vmAssignment = ant.vmAssignment;
+        for (int i = 0; i < vmAssignment.length; i++) {
+            double arrival = model.arrival(i);
+            double window = Math.max(model.deadline(i) - arrival, Double.MIN_NORMAL);
+            for (int vm = 0; vm < vmFreeAt.length; vm++) {
+                double finish = Math.max(vmFreeAt[vm], arrival) + model.length(i) / vmMips[vm];
+                double slack = model.deadline(i) - finish;
+                // if the cloudlet would finish after its deadline on this VM, the VM is barely desirable
+                heuristic[vm] = slack < 0
+                        ? 0.1
+                        : (1 + slack / window) * efficiency[pStateModel.hostOf(vm)][pStates[pStateModel.hostOf(vm)]];
+            }
+            double total = vmTrails.cumulativeWeights(i, heuristic, PHER_INF, HEUR_INF, ant.cumulative);
+            int vm = PheromoneMatrix.sample(ant.cumulative, vmFreeAt.length, random.nextDouble() * total);
+            vmAssignment[i] = vm;
+            vmFreeAt[vm] = Math.max(vmFreeAt[vm], arrival) + model.length(i) / vmMips[vm];
+        }
+    }
+
+    /* runs the tasks on the ant pool and waits for all of them, or runs them in order if there is no pool */
+    private void runAll(List<Runnable> tasks) {
+        if (antPool == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+
+        List<ForkJoinTask<?>> submitted = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks)
+            submitted.add(antPool.submit(task));
+        for (ForkJoinTask<?> task : submitted)
+            task.join();
+    }
+
+    @Override
+    public ACOAlgorithmEnergyHeuristic setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    @Override
+    public String cacheKey() {
+        return String.format("%s ants=%d iterations=%d evaporation=%s pheromone=[%s, %s] alpha=%d beta=%d slaLimit=%s seed=%d",
+                getClass().getName(), numAnts, iterations, evaporationRate, MIN_PHEROMONE_LEVEL, MAX_PHEROMONE_LEVEL,
+                PHER_INF, HEUR_INF, slaViolationLimit, seed);
+    }
+
+    /**
+     * Builds and scores the ants of each iteration in parallel on the given pool.
+     * Pheromone evaporation and deposit stay on the calling thread.
+     * Passing {@code null} restores the sequential behaviour.
+     */
+    public ACOAlgorithmEnergyHeuristic setAntPool(ForkJoinPool antPool) {
+        this.antPool = antPool;
+        return this;
+    }
+
+    /**
+     * Share of cloudlets allowed to miss their deadline. Plans within it are ranked by energy alone,
+     * the others by how far over it they are; {@code 0} by default.
+     */
+    public ACOAlgorithmEnergyHeuristic setSlaViolationLimit(double slaViolationLimit) {
+        this.slaViolationLimit = Math.max(0, slaViolationLimit);
+        return this;
+    }
+
+    /** Surrogate violations of the plan the last run simulated. */
+    public int getLastViolations() {
+        return lastBestAnt == null ? 0 : lastBestAnt.numberViolations;
+    }
+
+    /** Surrogate energy in J of the plan the last run simulated. */
+    public double getLastEnergy() {
+        return lastBestAnt == null ? 0 : lastBestAnt.energy;
+    }
+
+    /** Host P-states of the plan the last run simulated; a copy. */
+    public int[] getLastPStates() {
+        return lastBestAnt == null ? new int[0] : lastBestAnt.pStates.clone();
+    }
+}
+
+
+/**
+ * One ant of {@link ACOAlgorithmEnergyHeuristic}: a P-state per host and a VM per cloudlet,
+ * with its construction and scoring work arrays, reused every iteration.
+ */
+class AntEnergy {
+    // cloudlet index -> VM index
+    protected final int[] vmAssignment;
+    // host index -> P-state index
+    protected final int[] pStates;
+    protected double fitness = Double.NEGATIVE_INFINITY;
+    protected int numberViolations;
+    protected int excessViolations;
+    protected double energy;
+
+    /* construction and scoring work arrays */
+    final double[] vmMips;
+    final double[] vmFreeAt;
+    final double[] vmBusy;
+    final double[] heuristic;
+    final double[] cumulative;
+    final double[] stateWeights;
+    final double[] stateCumulative;
+    // shares the workload arrays, only the scratch space is the ant's own
+    final SpaceSharedSurrogate surrogate;
+
+    AntEnergy(SpaceSharedSurrogate model, PStateModel pStateModel, int maxStates) {
+        vmAssignment = new int[model.cloudletCount()];
+        pStates = pStateModel.topStates();
+        vmMips = new double[model.vmCount()];
+        vmFreeAt = new double[model.vmCount()];
+        vmBusy = new double[model.vmCount()];
+        heuristic = new double[model.vmCount()];
+        cumulative = new double[model.vmCount()];
+        stateWeights = new double[maxStates];
+        stateCumulative = new double[maxStates];
+        surrogate = model.withOwnScratch();
+    }
+
+    /* replays the plan at the chosen speeds; higher fitness is better */
+    void score(PStateModel pStateModel, int allowedViolations) {
+        numberViolations = surrogate.evaluate(vmAssignment, 0, vmMips, vmBusy);
+        energy = pStateModel.energy(pStates, vmBusy, surrogate.getLastMakespan());
+        excessViolations = Math.max(0, numberViolations - allowedViolations);
+        fitness = (double) 1 / (1 + excessViolations);
+    }
+
+    /* fewer violations over the limit first, then less energy */
+    boolean isBetterThan(AntEnergy other) {
+        if (excessViolations != other.excessViolations)
+            return excessViolations < other.excessViolations;
+        return energy < other.energy;
+    }
+
+    void copyFrom(AntEnergy other) {
+        System.arraycopy(other.vmAssignment, 0, vmAssignment, 0, vmAssignment.length);
+        System.arraycopy(other.pStates, 0, pStates, 0, pStates.length);
+        fitness = other.fitness;
+        numberViolations = other.numberViolations;
+        excessViolations = other.excessViolations;
+        energy = other.energy;
+    }
+}
@@ -1,7 +1,9 @@
 package org.APD.Algorithms;
 
 import org.APD.AlgorithmResult;
+import org.APD.CsvResultSink;
 import org.APD.DeadlineCloudlet;
+import org.APD.RunSummary;
 import org.APD.PowerModels.PowerModelPStateProcessor;
 import org.apache.commons.math3.analysis.function.Pow;
 import org.cloudsimplus.brokers.DatacenterBroker;
@@ -83,6 +85,7 @@ public class AlgorithmBaseFunctionalities {
     protected List<Host> hostList;
 
     int TOTAL_FRAMES = 30; // how long you want the simulation to run in 10s chunks
+    protected static final double FRAME_LENGTH = 10; // seconds covered by one arrival frame
     protected static int MIPS_PER_VM_MAX = 10000; // Adjust this to your VM's actual MIPS capacity
     protected static int MIPS_PER_HOST_MAX = MIPS_PER_VM_MAX; // Adjust this to your Host's actual MIPS capacity
 
@@ -239,15 +242,20 @@ public class AlgorithmBaseFunctionalities {
     }
 
     protected  List<DeadlineCloudlet> createCloudletsUniformDistribution_Outdated() {
+        return createCloudletsUniformDistribution_Outdated(new Random().nextLong());
+    }
+
+    /** Same workload shape, drawn from {@code seed}: the same seed always gives the same cloudlets. */
+    protected  List<DeadlineCloudlet> createCloudletsUniformDistribution_Outdated(long seed) {
         final List<DeadlineCloudlet> cloudletList = new ArrayList<>();
         final var utilization = new UtilizationModelDynamic(0.002);
-        final Random random = new Random();
+        final Random random = new Random(seed);
 
         int id = 0;
         int pes = 1;
 
         for (int frame = 0; frame < TOTAL_FRAMES; frame++) {
-            double frameStartTime = frame * 10;
+            double frameStartTime = frame * FRAME_LENGTH;
             int cloudletsThisFrame = CLOUDLETS_PER_FRAME - 2 + random.nextInt(5); // between 8 and 12 cloudlets
 
             // during the simulation, for 10% of the frames, inject HOST_NR tasks that have 10 times the length of a normal cloudlet, and the deadline is huge
@@ -271,7 +279,7 @@ public class AlgorithmBaseFunctionalities {
                     length = (long) Math.min(CLOUDLET_LENGTH_MIN + random.nextDouble() * CLOUDLET_LENGTH_MAX, CLOUDLET_LENGTH_MAX);
                 }
 
-                submissionDelay = frameStartTime + random.nextDouble() * 10;
+                submissionDelay = frameStartTime + random.nextDouble() * FRAME_LENGTH;
                 deadline = submissionDelay + execTimeSec * 10 + 5.0; // 1s margin
 
                 DeadlineCloudlet cloudlet = (DeadlineCloudlet) new DeadlineCloudlet(id++, length, pes)
@@ -297,15 +305,20 @@ public class AlgorithmBaseFunctionalities {
     }
 
     protected List<DeadlineCloudlet> createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs() {
+        return createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(new Random().nextLong());
+    }
+
+    /** Same workload shape, drawn from {@code seed}: the same seed always gives the same cloudlets. */
+    protected List<DeadlineCloudlet> createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(long seed) {
         final List<DeadlineCloudlet> cloudletList = new ArrayList<>();
         final var utilization = new UtilizationModelDynamic(0.002);
-        final Random random = new Random();
+        final Random random = new Random(seed);
 
         int id = 0;
         int pes = 1;
 
         for (int frame = 0; frame < TOTAL_FRAMES; frame++) {
-            double frameStartTime = frame * 10;
+            double frameStartTime = frame * FRAME_LENGTH;
 
             // Bursty pattern: every 5th frame has a spike in jobs
             int cloudletsThisFrame = CLOUDLETS_PER_FRAME - 2 + random.nextInt(5);
@@ -370,7 +383,7 @@ public class AlgorithmBaseFunctionalities {
                 double execTimeSec = Math.min(logNormalExecTime, 20.0); // cap at 20s
 
                 long length = (long) (execTimeSec * CLOUDLET_LENGTH_MIN);
-                double submissionDelay = frameStartTime + random.nextDouble() * 10;
+                double submissionDelay = frameStartTime + random.nextDouble() * FRAME_LENGTH;
 
                 double jitter = 1.0 + random.nextDouble() * 2.0;
                 double deadline = submissionDelay + execTimeSec * 1.5 + jitter;
@@ -586,29 +599,22 @@ public class AlgorithmBaseFunctionalities {
     }
 
     public void exportResultsToCsv(List<AlgorithmResult> results, Path csvFile) {
+        exportSummariesToCsv(results.stream().map(RunSummary::of).toList(), csvFile);
+    }
 
-        /* ---- start fresh: delete previous file if it exists ---- */
-        try {
-            Files.deleteIfExists(csvFile);
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to remove old CSV", e);
-        }
-
-        /* ---- loop through every algorithm and delegate to the existing helper ---- */
-        for (AlgorithmResult res : results) {
-            saveSlaStatsToCsv(
-                    res.cloudletFinishedList(),  // list of completed cloudlets
-                    res.algorithmName(),          // name shown in the CSV
-                    res.vms(),                    // VM list for power stats (if helper needs it)
-                    res.totalExecutionTime(),     // total time taken for the algorithm
-                    csvFile                       // same file for all rows
-            );
+    /** Writes a fresh CSV with one row per summary, through one writer; see {@link CsvResultSink}. */
+    public void exportSummariesToCsv(List<RunSummary> summaries, Path csvFile) {
+        try (CsvResultSink sink = new CsvResultSink(csvFile)) {
+            sink.acceptAll(summaries);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write SLA CSV", e);
         }
     }
 
 
     /* ---------------------------------------------------------------------------
      *  NEW helper – write one CSV record with SLA statistics
+     *  (opens the file per row: for many rows, stream them through a CsvResultSink)
      * ---------------------------------------------------------------------------
      */
     protected void saveSlaStatsToCsv(List<DeadlineCloudlet> finished,
@@ -616,44 +622,10 @@ public class AlgorithmBaseFunctionalities {
                                      List<Vm> vmList,
                                      long totalExecutionTime,
                                      Path csvFile) {
+        appendSummaryToCsv(RunSummary.of(algorithmName, finished, vmList, totalExecutionTime), csvFile);
+    }
 
-        /* ----------------- compute the figures (same logic you had) ----------------- */
-        int violations = 0, total = 0;
-        double totalTardiness = 0, maxTardiness = 0;
-        int tier1 = 0, tier2 = 0, tier3 = 0;
-
-        for (Cloudlet cl : finished) {
-            if (cl instanceof DeadlineCloudlet dc) {
-                total++;
-                double tardiness = Math.max(0, dc.getFinishTime() - dc.getDeadline());
-                if (tardiness > 0) {
-                    violations++;
-                    totalTardiness += tardiness;
-                    maxTardiness = Math.max(maxTardiness, tardiness);
-
-                    double rel = tardiness / dc.getDeadline();
-                    if (rel <= 0.10)      tier1++;
-                    else if (rel <= 0.50) tier2++;
-                    else                  tier3++;
-                }
-            }
-        }
-
-        double violPct = total == 0 ? 0 : 100.0 * violations / total;
-        double avgTard = violations == 0 ? 0 : totalTardiness / violations;
-
-        double totalPowerConsumption = 0;
-        for (Vm vm : vmList) {
-            final var powerModel = vm.getHost().getPowerModel();
-            final double hostStaticPower = powerModel instanceof PowerModelPStateProcessor powerModelHost ? powerModelHost.getStaticPower() : 0;
-            final double hostStaticPowerByVm = hostStaticPower / vm.getHost().getVmCreatedList().size();
-
-            //VM CPU utilization relative to the host capacity
-            final double vmRelativeCpuUtilization = vm.getCpuUtilizationStats().getMean() / vm.getHost().getVmCreatedList().size();
-            final double vmPower = powerModel.getPower(vmRelativeCpuUtilization) - hostStaticPower + hostStaticPowerByVm; // W
-            totalPowerConsumption += vmPower;
-        }
-
+    protected void appendSummaryToCsv(RunSummary summary, Path csvFile) {
         /* ---------------- write / append the CSV ---------------- */
         boolean fileExists = Files.exists(csvFile);
 
@@ -665,15 +637,13 @@ public class AlgorithmBaseFunctionalities {
 
             /* header only the first time */
             if (!fileExists) {
-                bw.write("Algorithm,TotalCloudlets,Violations,ViolationPct,"
-                        + "Tier1,Tier2,Tier3,AvgTardiness,MaxTardiness,PowerConsumption,TotalTimeTaken");
+                bw.write(CsvResultSink.HEADER);
                 bw.newLine();
             }
 
-            bw.write(String.format(
-                    "%s,%d,%d,%.2f,%d,%d,%d,%.2f,%.2f,%.2f,%.2f",
-                    algorithmName, total, violations, violPct,
-                    tier1, tier2, tier3, avgTard, maxTardiness, totalPowerConsumption, totalExecutionTime / 1000.0));
+            StringBuilder row = new StringBuilder(128);
+            CsvResultSink.appendRow(row, summary);
+            bw.append(row);
             bw.newLine();
         } catch (IOException e) {
             throw new UncheckedIOException("Unable to write SLA CSV", e);
@@ -0,0 +1,63 @@
+package org.APD.Algorithms;
+
+/**
+ * One ant of the colony. An ant is created once per run and reused every iteration:
+ * its allocation is a primitive cloudlet index → VM index array and its construction
+ * work arrays are kept alongside it, so building and scoring it allocates nothing.
+ */
+class Ant {
+    // cloudlet index (position in the cloudlet list) -> VM index
+    protected final int[] vmAssignment;
+    protected double fitness;
+    protected int numberViolations;
+
+    /* construction work arrays, one slot per VM */
+    final double[] vmFreeAt;
+    final double[] heuristic;
+    final double[] cumulative;
+    // shares the workload arrays, only the scratch space is the ant's own
+    final SpaceSharedSurrogate surrogate;
+
+    Ant(SpaceSharedSurrogate model) {
+        vmAssignment = new int[model.cloudletCount()];
+        vmFreeAt = new double[model.vmCount()];
+        heuristic = new double[model.vmCount()];
+        cumulative = new double[model.vmCount()];
+        surrogate = model.withOwnScratch();
+        reset();
+    }
+
+    /* clears the scores before the ant is sent out again */
+    public void reset() {
+        fitness = Double.NEGATIVE_INFINITY;
+        numberViolations = 0;
+    }
+
+    /* overwrites this ant's allocation and scores with the other's, without allocating */
+    public void copyFrom(Ant other) {
+        System.arraycopy(other.vmAssignment, 0, vmAssignment, 0, vmAssignment.length);
+        fitness = other.fitness;
+        numberViolations = other.numberViolations;
+    }
+
+    public int[] getVmAssignment() {
+        return vmAssignment;
+    }
+
+    public double getFitness() {
+        return fitness;
+    }
+
+    public void setFitness(double fit) {
+        this.fitness = fit;
+    }
+
+    public int getNumberViolations() {
+        return numberViolations;
+    }
+
+    public void setNumberViolations(int numberViolations) {
+        this.numberViolations = numberViolations;
+    }
+
+}
@@ -0,0 +1,133 @@
+package org.APD.Algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Scores a whole population of cloudlet → VM assignments in one pass, on the same FIFO
+ * model as {@link SpaceSharedSurrogate}.
+ * <p>
+ * The population is given cloudlet-major: {@code genes[c * individuals + p]} is the VM of
+ * cloudlet {@code c} in individual {@code p}. The cloudlets are walked once in arrival order
+ * and, for each one, every individual's timeline is advanced in lock-step, so the cloudlet's
+ * arrival, length and deadline are loaded once per population instead of once per individual,
+ * and when there are fewer VMs than individuals its run time on each VM is computed once too.
+ * The per-VM free times are laid out {@code [vm * individuals + p]}.
+ * </p>
+ * <p>
+ * Results are exactly those of {@link SpaceSharedSurrogate#evaluate(int[])} for each individual.
+ * Not thread-safe: each thread must use its own instance.
+ * </p>
+ */
+public class BatchScorer {
+
+    private static final int TRANSPOSE_TILE = 64;
+
+    private final double[] arrival;
+    private final double[] length;
+    private final double[] deadline;
+    private final double[] vmMips;
+    private final double[] readyAt;
+
+    private final int maxIndividuals;
+    private final double[] freeAt;
+    private final int[] violations;
+    private final double[] makespan;
+    private final double[] runTime; // length / mips of the current cloudlet on each VM
+
+    public BatchScorer(SpaceSharedSurrogate model, int maxIndividuals) {
+        int n = model.cloudletCount(), m = model.vmCount();
+        arrival = new double[n];
+        length = new double[n];
+        deadline = new double[n];
+        for (int c = 0; c < n; c++) {
+            arrival[c] = model.arrival(c);
+            length[c] = model.length(c);
+            deadline[c] = model.deadline(c);
+        }
+        vmMips = new double[m];
+        for (int vm = 0; vm < m; vm++)
+            vmMips[vm] = model.mips(vm);
+        readyAt = new double[m];
+        model.copyVmReadyTimes(readyAt);
+
+        this.maxIndividuals = maxIndividuals;
+        freeAt = new double[m * maxIndividuals];
+        violations = new int[maxIndividuals];
+        makespan = new double[maxIndividuals];
+        runTime = new double[m];
+    }
+
+    /**
+     * Scores {@code individuals} assignments stored cloudlet-major in {@code genes}.
+     * The results are read with {@link #violations(int)} and {@link #makespan(int)} until the next call.
+     */
+    public void score(int[] genes, int individuals) {
+        if (individuals > maxIndividuals)
+            throw new IllegalArgumentException("At most " + maxIndividuals + " individuals per batch");
+        int P = individuals;
+        for (int vm = 0; vm < vmMips.length; vm++)
+            Arrays.fill(freeAt, vm * P, (vm + 1) * P, readyAt[vm]);
+        Arrays.fill(violations, 0, P, 0);
+
+        // with fewer VMs than individuals, the cloudlet's run time on every VM is divided out once and shared
+        boolean shareRunTimes = vmMips.length <= P;
+        for (int c = 0; c < arrival.length; c++) {
+            double a = arrival[c], l = length[c], d = deadline[c];
+            int row = c * P;
+            if (shareRunTimes) {
+                for (int vm = 0; vm < vmMips.length; vm++)
+                    runTime[vm] = l / vmMips[vm];
+                for (int p = 0; p < P; p++) {
+                    int vm = genes[row + p];
+                    int slot = vm * P + p;
+                    double finish = Math.max(a, freeAt[slot]) + runTime[vm];
+                    freeAt[slot] = finish;
+                    violations[p] += finish > d ? 1 : 0;
+                }
+            } else {
+                for (int p = 0; p < P; p++) {
+                    int vm = genes[row + p];
+                    int slot = vm * P + p;
+                    double finish = Math.max(a, freeAt[slot]) + l / vmMips[vm];
+                    freeAt[slot] = finish;
+                    violations[p] += finish > d ? 1 : 0;
+                }
+            }
+        }
+
+        // a VM that ran anything ends strictly after its ready time, so the makespan is read off the final free times
+        for (int p = 0; p < P; p++) {
+            double latest = 0.0;
+            for (int vm = 0; vm < vmMips.length; vm++) {
+                double free = freeAt[vm * P + p];
+                if (free > readyAt[vm] && free > latest)
+                    latest = free;
+            }
+            makespan[p] = latest;
+        }
+    }
+
+    public int violations(int individual) {
+        return violations[individual];
+    }
+
+    public double makespan(int individual) {
+        return makespan[individual];
+    }
+
+    /**
+     * Writes individuals {@code [from, from + count)} of an individual-major gene block
+     * ({@code genes[i * n + c]}) into {@code cloudletMajor} as individuals {@code [0, count)}.
+     */
+    public static void transpose(int[] genes, int n, int from, int count, int[] cloudletMajor) {
+        // in tiles of cloudlets, so both the reads and the writes stay within a few cache lines
+        for (int c0 = 0; c0 < n; c0 += TRANSPOSE_TILE) {
+            int c1 = Math.min(n, c0 + TRANSPOSE_TILE);
+            for (int p = 0; p < count; p++) {
+                int base = (from + p) * n;
+                for (int c = c0; c < c1; c++)
+                    cloudletMajor[c * count + p] = genes[base + c];
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.APD.Algorithms;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Per-cloudlet candidate lists for {@link ACOAlgorithm}.
+ * <p>
+ * For every cloudlet only the {@code k} VMs with the highest
+ * {@code pheromone^α · η^β} are kept, where η is a static heuristic:
+ * the VM's relative speed, divided by 10 when the cloudlet would miss its
+ * deadline on that VM even with an empty queue. Over those {@code k} weights a
+ * Walker alias table is built, so an ant draws a candidate in O(1) instead of
+ * scanning all VMs. The lists only depend on the trails, so they are rebuilt
+ * once per iteration and shared read-only by all ants.
+ * </p>
+ * <p>
+ * Storage is flat: row {@code c} of every array is {@code [c * k, (c + 1) * k)}.
+ * </p>
+ */
+public class CandidateLists {
+
+    private final int cloudlets;
+    private final int k;
+    private final int[] candidates;
+    private final double[] aliasProbability;
+    private final int[] aliasIndex;
+
+    /* rebuild scratch */
+    private final double[] weights;
+    private final int[] small;
+    private final int[] large;
+
+    public CandidateLists(int cloudlets, int vms, int k) {
+        if (k <= 0)
+            throw new IllegalArgumentException("Candidate list size must be positive");
+        this.cloudlets = cloudlets;
+        this.k = Math.min(k, vms);
+        candidates = new int[cloudlets * this.k];
+        aliasProbability = new double[cloudlets * this.k];
+        aliasIndex = new int[cloudlets * this.k];
+        weights = new double[this.k];
+        small = new int[this.k];
+        large = new int[this.k];
+    }
+
+    public int size() {
+        return k;
+    }
+
+    /** Recomputes every cloudlet's top-k VMs and alias table from the current trails. */
+    public void rebuild(PheromoneMatrix pheromoneMatrix, SpaceSharedSurrogate model, int alpha, int beta) {
+        double maxMips = 0;
+        for (int vm = 0; vm < model.vmCount(); vm++)
+            maxMips = Math.max(maxMips, model.mips(vm));
+
+        for (int c = 0; c < cloudlets; c++) {
+            selectTopK(c, pheromoneMatrix, model, maxMips, alpha, beta);
+            buildAliasTable(c * k);
+        }
+    }
+
+    /* keeps the k best VMs of the row in a min-heap on weight, heap root = weakest kept candidate */
+    private void selectTopK(int c, PheromoneMatrix pheromoneMatrix, SpaceSharedSurrogate model,
+                            double maxMips, int alpha, int beta) {
+        int base = c * k;
+        int filled = 0;
+        double arrival = model.arrival(c), length = model.length(c), deadline = model.deadline(c);
+
+        for (int vm = 0; vm < model.vmCount(); vm++) {
+            double eta = model.mips(vm) / maxMips;
+            if (arrival + length / model.mips(vm) > deadline)
+                eta *= 0.1;
+            double w = PheromoneMatrix.intPow(pheromoneMatrix.get(c, vm), alpha) * PheromoneMatrix.intPow(eta, beta);
+
+            if (filled < k) {
+                weights[filled] = w;
+                candidates[base + filled] = vm;
+                siftUp(base, filled++);
+            } else if (w > weights[0]) {
+                weights[0] = w;
+                candidates[base] = vm;
+                siftDown(base, 0);
+            }
+        }
+    }
+
+    private void siftUp(int base, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (weights[parent] <= weights[i]) return;
+            swap(base, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int base, int i) {
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, smallest = i;
+            if (l < k && weights[l] < weights[smallest]) smallest = l;
+            if (r < k && weights[r] < weights[smallest]) smallest = r;
+            if (smallest == i) return;
+            swap(base, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int base, int i, int j) {
+        double w = weights[i]; weights[i] = weights[j]; weights[j] = w;
+        int v = candidates[base + i]; candidates[base + i] = candidates[base + j]; candidates[base + j] = v;
+    }
+
+    /* Vose's variant of Walker's alias method over weights[0..k) */
+    private void buildAliasTable(int base) {
+        double total = 0;
+        for (int i = 0; i < k; i++) total += weights[i];
+
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < k; i++) {
+            weights[i] = weights[i] * k / total;
+            if (weights[i] < 1.0) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            aliasProbability[base + s] = weights[s];
+            aliasIndex[base + s] = l;
+            weights[l] = weights[l] + weights[s] - 1.0;
+            if (weights[l] < 1.0) small[smallCount++] = l;
+            else large[largeCount++] = l;
+        }
+        // whatever is left is 1 up to rounding
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            aliasProbability[base + l] = 1.0;
+            aliasIndex[base + l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            aliasProbability[base + s] = 1.0;
+            aliasIndex[base + s] = s;
+        }
+    }
+
+    /** Draws one candidate VM for the cloudlet in O(1). */
+    public int sample(int cloudlet, RandomGenerator random) {
+        int base = cloudlet * k;
+        int slot = random.nextInt(k);
+        int chosen = random.nextDouble() < aliasProbability[base + slot] ? slot : aliasIndex[base + slot];
+        return candidates[base + chosen];
+    }
+
+    /** The VM at position {@code i} of the cloudlet's list, in no particular order. */
+    public int candidate(int cloudlet, int i) {
+        return candidates[cloudlet * k + i];
+    }
+}
@@ -0,0 +1,237 @@
+package org.APD.Algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Incremental scorer for GA children, on the same FIFO model as {@link SpaceSharedSurrogate}.
+ * <p>
+ * For every individual of a {@link GAPopulation} it keeps the cloudlets of each VM in arrival
+ * order (one {@code int[size * n]} block grouped by VM, with per-VM segment starts) and each
+ * VM's finish time and violation count. A child that differs from its parent in a few genes
+ * is scored by replaying only the queues of the VMs those genes left or joined; the other VMs'
+ * results are copied from the parent. When those queues hold more than half of the cloudlets,
+ * the child is scored from scratch instead, in one O(N + M) pass plus a counting sort.
+ * </p>
+ * <p>
+ * The buffers are double-buffered and slot-aligned with the population: parents are read from
+ * the current generation, children are written to the next one, and {@link #swap()} is called
+ * together with {@link GAPopulation#swap()}. Not thread-safe: one instance per island.
+ * </p>
+ */
+class DeltaEvaluator {
+
+    private final SpaceSharedSurrogate model;
+    private final int n;
+    private final int m;
+    private final double[] readyAt;
+    // above this many cloudlets to replay, a full evaluation is cheaper than merging queues
+    private final int deltaLimit;
+
+    /* per slot: members[slot*n ..] grouped by VM, vmStart[slot*(m+1) + vm], vm results at [slot*m + vm] */
+    private int[] members, nextMembers;
+    private int[] vmStart, nextVmStart;
+    private int[] vmViolations, nextVmViolations;
+    private double[] vmFinish, nextVmFinish;
+
+    /* genes changed in the child being built, deduplicated with an epoch stamp */
+    private final int[] changed;
+    private final int[] stamp;
+    private int changedCount;
+    private int epoch;
+
+    /* scratch */
+    private final long[] keys;
+    private final boolean[] affected;
+    private final int[] counts;
+
+    private double lastMakespan;
+
+    DeltaEvaluator(SpaceSharedSurrogate model, int size) {
+        this.model = model;
+        this.n = model.cloudletCount();
+        this.m = model.vmCount();
+        readyAt = new double[m];
+        model.copyVmReadyTimes(readyAt);
+        deltaLimit = Math.max(1, n / 2);
+
+        members = new int[size * n];
+        nextMembers = new int[size * n];
+        vmStart = new int[size * (m + 1)];
+        nextVmStart = new int[size * (m + 1)];
+        vmViolations = new int[size * m];
+        nextVmViolations = new int[size * m];
+        vmFinish = new double[size * m];
+        nextVmFinish = new double[size * m];
+
+        changed = new int[n];
+        stamp = new int[n];
+        keys = new long[n];
+        affected = new boolean[m];
+        counts = new int[m + 1];
+    }
+
+    /** Scores the individual in slot {@code slot} of the current generation from scratch and keeps its timelines. */
+    int evaluate(int[] genes, int offset, int slot) {
+        return evaluateFull(genes, offset, slot, members, vmStart, vmViolations, vmFinish);
+    }
+
+    /** Starts recording the genes of a new child. */
+    void beginChild() {
+        changedCount = 0;
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+
+    /** Notes that the child's gene may differ from its parent's; recording a gene twice is harmless. */
+    void recordChange(int gene) {
+        if (stamp[gene] != epoch) {
+            stamp[gene] = epoch;
+            changed[changedCount++] = gene;
+        }
+    }
+
+    /**
+     * Scores the child in slot {@code childSlot} of the next generation, starting from the
+     * parent in slot {@code parentSlot} of the current one. Only the genes recorded since
+     * {@link #beginChild()} may differ between the two.
+     *
+     * @return the child's number of violations; its makespan is {@link #getLastMakespan()}
+     */
+    int evaluateChild(int[] parentGenes, int parentOffset, int parentSlot,
+                      int[] childGenes, int childOffset, int childSlot) {
+        // keep the genes that really moved, keyed by (new VM, cloudlet) so each VM's arrivals are contiguous and ordered
+        int k = 0;
+        for (int i = 0; i < changedCount; i++) {
+            int g = changed[i];
+            int from = parentGenes[parentOffset + g];
+            int to = childGenes[childOffset + g];
+            if (from == to)
+                continue;
+            affected[from] = true;
+            affected[to] = true;
+            keys[k++] = ((long) to << 32) | g;
+        }
+
+        // the merge replays every queue a changed gene left or joined, which only pays off if those are short
+        int pStart = parentSlot * (m + 1), cStart = childSlot * (m + 1);
+        int replayed = k;
+        for (int vm = 0; vm < m; vm++) {
+            if (affected[vm])
+                replayed += vmStart[pStart + vm + 1] - vmStart[pStart + vm];
+        }
+        if (replayed > deltaLimit)
+            return evaluateFull(childGenes, childOffset, childSlot, nextMembers, nextVmStart, nextVmViolations, nextVmFinish);
+        Arrays.sort(keys, 0, k);
+
+        int pVm = parentSlot * m, cVm = childSlot * m;
+        int pos = childSlot * n;
+        int cursor = 0;
+        int violations = 0;
+        double makespan = 0;
+
+        for (int vm = 0; vm < m; vm++) {
+            int from = parentSlot * n + vmStart[pStart + vm];
+            int to = parentSlot * n + vmStart[pStart + vm + 1];
+            nextVmStart[cStart + vm] = pos - childSlot * n;
+
+            if (!affected[vm]) {
+                System.arraycopy(members, from, nextMembers, pos, to - from);
+                pos += to - from;
+                nextVmViolations[cVm + vm] = vmViolations[pVm + vm];
+                nextVmFinish[cVm + vm] = vmFinish[pVm + vm];
+            } else {
+                affected[vm] = false;
+                // merge the parent's queue, minus the cloudlets that left, with the ones that joined
+                double finish = readyAt[vm];
+                boolean any = false;
+                int late = 0;
+                int p = from;
+                while (true) {
+                    while (p < to && childGenes[childOffset + members[p]] != vm)
+                        p++;
+                    boolean hasJoined = cursor < k && (int) (keys[cursor] >>> 32) == vm;
+                    if (p == to && !hasJoined)
+                        break;
+
+                    int c;
+                    if (hasJoined && (p == to || (int) keys[cursor] < members[p])) {
+                        c = (int) keys[cursor++];
+                    } else {
+                        c = members[p++];
+                    }
+                    nextMembers[pos++] = c;
+                    finish = Math.max(model.arrival(c), finish) + model.length(c) / model.mips(vm);
+                    if (finish > model.deadline(c)) late++;
+                    any = true;
+                }
+                nextVmViolations[cVm + vm] = late;
+                nextVmFinish[cVm + vm] = any ? finish : 0;
+            }
+            violations += nextVmViolations[cVm + vm];
+            makespan = Math.max(makespan, nextVmFinish[cVm + vm]);
+        }
+        nextVmStart[cStart + m] = pos - childSlot * n;
+
+        lastMakespan = makespan;
+        return violations;
+    }
+
+    /* one pass in arrival order as in SpaceSharedSurrogate, then a counting sort of the genes by VM */
+    private int evaluateFull(int[] genes, int offset, int slot,
+                             int[] members, int[] vmStart, int[] vmViolations, double[] vmFinish) {
+        Arrays.fill(affected, false);
+        Arrays.fill(counts, 0);
+        int vmBase = slot * m;
+        System.arraycopy(readyAt, 0, vmFinish, vmBase, m);
+        Arrays.fill(vmViolations, vmBase, vmBase + m, 0);
+
+        for (int c = 0; c < n; c++) {
+            int vm = genes[offset + c];
+            counts[vm + 1]++;
+            double finish = Math.max(model.arrival(c), vmFinish[vmBase + vm]) + model.length(c) / model.mips(vm);
+            vmFinish[vmBase + vm] = finish;
+            if (finish > model.deadline(c)) vmViolations[vmBase + vm]++;
+        }
+
+        int startBase = slot * (m + 1);
+        int violations = 0;
+        double makespan = 0;
+        for (int vm = 0; vm < m; vm++) {
+            if (counts[vm + 1] == 0)
+                vmFinish[vmBase + vm] = 0;
+            violations += vmViolations[vmBase + vm];
+            makespan = Math.max(makespan, vmFinish[vmBase + vm]);
+            counts[vm + 1] += counts[vm];
+            vmStart[startBase + vm] = counts[vm];
+        }
+        vmStart[startBase + m] = n;
+
+        int base = slot * n;
+        for (int c = 0; c < n; c++)
+            members[base + counts[genes[offset + c]]++] = c;
+
+        lastMakespan = makespan;
+        return violations;
+    }
+
+    /** Copies the timelines of slot {@code from} of the current generation to slot {@code to} of the next. */
+    void carryOver(int from, int to) {
+        System.arraycopy(members, from * n, nextMembers, to * n, n);
+        System.arraycopy(vmStart, from * (m + 1), nextVmStart, to * (m + 1), m + 1);
+        System.arraycopy(vmViolations, from * m, nextVmViolations, to * m, m);
+        System.arraycopy(vmFinish, from * m, nextVmFinish, to * m, m);
+    }
+
+    void swap() {
+        int[] t = members; members = nextMembers; nextMembers = t;
+        t = vmStart; vmStart = nextVmStart; nextVmStart = t;
+        t = vmViolations; vmViolations = nextVmViolations; nextVmViolations = t;
+        double[] f = vmFinish; vmFinish = nextVmFinish; nextVmFinish = f;
+    }
+
+    double getLastMakespan() {
+        return lastMakespan;
+    }
+}
@@ -15,7 +15,16 @@ import org.cloudsimplus.datacenters.Datacenter;
 import org.cloudsimplus.util.Log;
 import org.cloudsimplus.vms.Vm;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
 
 public class GAAlgorithm extends BaseSchedulingAlgorithm {
 
@@ -24,9 +33,41 @@ public class GAAlgorithm extends BaseSchedulingAlgorithm {
     private static final int MAX_GENERATION = 50;     // iterations
     private static final double CROSSOVER_P = 0.9;    // probability
     private static final double MUTATION_P  = 0.02;   // probability per gene
+    private static final double SEED_PERTURBATION_P = 0.1; // genes redrawn in copies of the heuristic seeds
+
+    /* Island model: 1 island is the plain single-population GA */
+    public enum MigrationTopology { RING, RANDOM }
+
+    private int islands = 1;
+    private int migrationInterval = 5;      // generations between migrations
+    private int migrationSize = 2;          // individuals sent per migration
+    private MigrationTopology topology = MigrationTopology.RING;
+    // score children from their parent's per-VM timelines instead of replaying every cloudlet
+    private boolean deltaEvaluation = false;
+    // score every new generation in one pass with a BatchScorer instead of child by child
+    private boolean batchScoring = false;
+    // start from the round robin, FCFS, EDF and MIPS-weighted mappings and perturbed copies of them
+    private boolean heuristicSeeding = false;
+
+    /* Anytime budget, checked between generations; the best chromosome so far is used when it runs out */
+    private int maxGenerations = MAX_GENERATION;
+    private long timeBudgetNanos = Long.MAX_VALUE;
+    private long evaluationBudget = Long.MAX_VALUE;
 
     /* Internals */
-    private final Random rng = new Random();
+    // every island draws from its own stream split from this seed
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private double lastEvaluationsPerSecond;
+    private RunStatistics lastRunStatistics;
+    // shared by the islands of the current run
+    private long searchStart;
+    private final AtomicLong spentEvaluations = new AtomicLong();
+    private final AtomicLong reservedEvaluations = new AtomicLong(); // claimed by generations started so far
+    private double globalBestFitness;
+    private List<ConvergencePoint> trace;
+    private int[] seedGenes; // HeuristicSeeds.all of the current run, when seeding
+    // latest migrants published by each island, replaced atomically and read without locking
+    private AtomicReferenceArray<Migrants> exchange;
 
     /* ─────────────────────────── Public entry point ─────────────────────────── */
     @Override
@@ -83,125 +124,478 @@ public class GAAlgorithm extends BaseSchedulingAlgorithm {
 
 
         int N = cloudletList.size();
-        int M = vmList.size();
 
-        /* ---------- 1. Create initial population -------------------------------- */
-        List<int[]> population = new ArrayList<>(POP_SIZE);
-        for (int i = 0; i < POP_SIZE; i++)
-            population.add(randomChromosome(N, M));
+        // primitive copy of the workload, every chromosome is scored against it
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(cloudletList, vmList);
+        long start = System.nanoTime();
+        searchStart = start;
+        spentEvaluations.set(0);
+        reservedEvaluations.set((long) islands * POP_SIZE);
+        globalBestFitness = Double.NEGATIVE_INFINITY;
+        trace = new ArrayList<>();
+        seedGenes = heuristicSeeding ? HeuristicSeeds.all(model) : null;
+
+        /* ---------- 1. Create the initial population of every island ------------ */
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Island> population = new ArrayList<>(islands);
+        for (int k = 0; k < islands; k++)
+            population.add(new Island(k, model.withOwnScratch(), seeds.split()));
+        exchange = new AtomicReferenceArray<>(islands);
 
         /* ---------- 2. Evolution loop ------------------------------------------- */
-        int[] bestChrom = null;
+        if (islands == 1) {
+            population.get(0).evolve();
+        } else {
+            evolveInParallel(population);
+        }
+
+        Island best = population.get(0);
+        long evaluations = 0;
+        int generations = 0;
+        boolean stoppedByBudget = false;
+        for (Island island : population) {
+            evaluations += island.evaluations;
+            generations = Math.max(generations, island.generations);
+            stoppedByBudget |= island.generations < maxGenerations;
+            if (island.bestFitness > best.bestFitness)
+                best = island;
+        }
+        int[] bestChrom = best.bestChrom;
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        lastEvaluationsPerSecond = evaluations / seconds;
+        lastRunStatistics = new RunStatistics(generations, evaluations, seconds * 1000,
+                stoppedByBudget, best.bestFitness, List.copyOf(trace));
+
+        /* ---------- 3. Build and run CloudSim using best chromosome ------------- */
+
+        broker0.submitVmList(vmList);
+
+        for (int i = 0; i < cloudletList.size(); i++) {
+            Vm chosenVm = vmList.get(bestChrom[i]);
+            cloudletList.get(i).setVm(chosenVm);
+            broker0.submitCloudlet(cloudletList.get(i));
+        }
+
+        simulation.start();
+
+    }
+
+    /* every island runs all its generations on its own worker, migrating without waiting for the others */
+    private void evolveInParallel(List<Island> population) {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(islands, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(islands);
+            for (Island island : population)
+                futures.add(executor.submit(island::evolve));
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("GA islands interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("GA island failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /* claims the evaluations of one more generation; false once the time or evaluation budget has run out */
+    private boolean startGeneration() {
+        if (System.nanoTime() - searchStart >= timeBudgetNanos)
+            return false;
+        return evaluationBudget == Long.MAX_VALUE
+                || reservedEvaluations.addAndGet(POP_SIZE - 2) <= evaluationBudget;
+    }
+
+    /* called by an island whose best improved; keeps the trace of the best fitness over all islands */
+    private synchronized void recordProgress(int generation, double fitness, int violations) {
+        if (fitness <= globalBestFitness)
+            return;
+        globalBestFitness = fitness;
+        trace.add(new ConvergencePoint((System.nanoTime() - searchStart) / 1e6, generation,
+                spentEvaluations.get(), fitness, violations));
+    }
+
+    /** Best chromosome over all islands at some point of the search; generation 0 is the initial population. */
+    public record ConvergencePoint(double elapsedMillis, int generation, long evaluations,
+                                   double bestFitness, int violations) { }
+
+    /**
+     * Summary of one GA run: generations completed (by the island that got furthest), chromosomes
+     * scored, whether the budget stopped any island before {@code maxGenerations}, and one trace point per
+     * improvement of the best fitness.
+     */
+    public record RunStatistics(int generations, long evaluations, double elapsedMillis,
+                                boolean stoppedByBudget, double bestFitness, List<ConvergencePoint> trace) { }
+
+    /* best individuals of one island, copied out so the receiver never sees a population being bred */
+    private record Migrants(int[] genes, double[] fitness, int[] violations) { }
+
+    /* one sub-population with its own scratch model and random stream */
+    private final class Island {
+        final int index;
+        final GAPopulation population;
+        final SpaceSharedSurrogate model;
+        final RandomGenerator rng;
+        final DeltaEvaluator delta;
+        final int[] crossoverDiff; // genes where the two parents of the current pair differ past the cut
+        final BatchScorer batch;
+        final int[] batchGenes;    // cloudlet-major copy of the individuals being scored
+        final int[] bestChrom;
         double bestFitness = Double.NEGATIVE_INFINITY;
+        long evaluations;
+        long publishedEvaluations; // part of evaluations already added to spentEvaluations
+        int generations;
+
+        Island(int index, SpaceSharedSurrogate model, RandomGenerator rng) {
+            this.index = index;
+            this.model = model;
+            this.rng = rng;
+            int N = model.cloudletCount();
+            population = new GAPopulation(POP_SIZE, N);
+            delta = deltaEvaluation ? new DeltaEvaluator(model, POP_SIZE) : null;
+            crossoverDiff = deltaEvaluation ? new int[N] : null;
+            boolean useBatch = batchScoring && !deltaEvaluation;
+            batch = useBatch ? new BatchScorer(model, POP_SIZE) : null;
+            batchGenes = useBatch ? new int[N * POP_SIZE] : null;
+            bestChrom = new int[N];
+        }
 
-        for (int gen = 0; gen < MAX_GENERATION; gen++) {
+        void evolve() {
+            int N = population.length;
+            int M = model.vmCount();
+            for (int i = 0; i < POP_SIZE; i++) {
+                if (seedGenes != null)
+                    seededChromosome(population.genes, population.offset(i), i, N, M);
+                else
+                    randomChromosome(population.genes, population.offset(i), N, M);
+                if (batch == null)
+                    population.fitness[i] = fitness(population.genes, population.offset(i), i);
+            }
+            if (batch != null)
+                scoreBatch(population.genes, population.fitness, population.violations, 0);
+            updateBest();
+
+            for (int gen = 0; gen < maxGenerations && startGeneration(); gen++) {
+                if (islands > 1 && gen > 0 && gen % migrationInterval == 0)
+                    migrate();
+                nextGeneration(N, M);
+                generations++;
+                updateBest();
+            }
+        }
 
-            /* evaluate and rank (largest fitness first) */
-            population.sort((c1, c2) -> Double.compare(fitness(c2), fitness(c1)));
+        /* keeps the island's best chromosome and publishes the evaluations spent since the last call */
+        private void updateBest() {
+            spentEvaluations.addAndGet(evaluations - publishedEvaluations);
+            publishedEvaluations = evaluations;
 
-            if (fitness(population.get(0)) > bestFitness) {          //  ↑ flipped sign
-                bestFitness = fitness(population.get(0));
-                bestChrom   = population.get(0).clone();
+            int first = population.best();
+            if (population.fitness[first] > bestFitness) {
+                bestFitness = population.fitness[first];
+                System.arraycopy(population.genes, population.offset(first), bestChrom, 0, population.length);
+                recordProgress(generations, bestFitness, population.violations[first]);
             }
+        }
+
+        private void nextGeneration(int N, int M) {
+            /* every individual was scored once, when it was bred; only the two best are needed */
+            int first = population.best();
+            int second = population.bestExcept(first);
 
             /* build next generation */
-            List<int[]> next = new ArrayList<>(POP_SIZE);
             /* elitism: keep the top 2 */
-            next.add(population.get(0));
-            next.add(population.get(1));
+            population.carryOver(first, 0);
+            population.carryOver(second, 1);
+            if (delta != null) {
+                delta.carryOver(first, 0);
+                delta.carryOver(second, 1);
+            }
 
-            while (next.size() < POP_SIZE) {
-                int[] parent1 = tournamentSelect(population);
-                int[] parent2 = tournamentSelect(population);
+            int[] next = population.nextGenes;
+            for (int slot = 2; slot < POP_SIZE; slot += 2) {
+                int parent1 = tournamentSelect(population, rng);
+                int parent2 = tournamentSelect(population, rng);
 
-                int[] child1 = parent1.clone();
-                int[] child2 = parent2.clone();
+                int child1 = population.offset(slot);
+                System.arraycopy(population.genes, population.offset(parent1), next, child1, N);
+                boolean hasSecondChild = slot + 1 < POP_SIZE;
+                int child2 = hasSecondChild ? population.offset(slot + 1) : -1;
+                if (hasSecondChild)
+                    System.arraycopy(population.genes, population.offset(parent2), next, child2, N);
 
+                int diffCount = 0;
                 if (rng.nextDouble() < CROSSOVER_P) {
                     int cut = rng.nextInt(N);
+                    int p2 = population.offset(parent2);
                     for (int g = cut; g < N; g++) {
-                        int tmp = child1[g];
-                        child1[g] = child2[g];
-                        child2[g] = tmp;
+                        // the second child is the first one's complement, only built if it has a slot
+                        if (hasSecondChild) next[child2 + g] = next[child1 + g];
+                        if (delta != null && next[child1 + g] != population.genes[p2 + g])
+                            crossoverDiff[diffCount++] = g;
+                        next[child1 + g] = population.genes[p2 + g];
                     }
                 }
-                mutate(child1, M);
-                mutate(child2, M);
-
-                next.add(child1);
-                if (next.size() < POP_SIZE) next.add(child2);
+                population.nextFitness[slot] = breedChild(parent1, slot, diffCount, N, M);
+                if (hasSecondChild)
+                    population.nextFitness[slot + 1] = breedChild(parent2, slot + 1, diffCount, N, M);
             }
-            population = next;
+            if (batch != null)
+                scoreBatch(population.nextGenes, population.nextFitness, population.nextViolations, 2);
+            population.swap();
+            if (delta != null)
+                delta.swap();
         }
 
-        /* ---------- 3. Build and run CloudSim using best chromosome ------------- */
+        /* mutates the child in the next generation's slot and scores it against its parent */
+        private double breedChild(int parent, int slot, int diffCount, int N, int M) {
+            int[] next = population.nextGenes;
+            int child = population.offset(slot);
+            if (batch != null) {
+                mutate(next, child, N, M, rng);
+                return Double.NaN; // scored with the rest of the generation
+            }
+            if (delta == null) {
+                mutate(next, child, N, M, rng);
+                return fitness(next, child, slot);
+            }
 
-        broker0.submitVmList(vmList);
+            // both children differ from their own parent at the same crossover positions
+            delta.beginChild();
+            for (int d = 0; d < diffCount; d++)
+                delta.recordChange(crossoverDiff[d]);
+            for (int i = 0; i < N; i++) {
+                if (rng.nextDouble() < MUTATION_P) {
+                    next[child + i] = rng.nextInt(M);
+                    delta.recordChange(i);
+                }
+            }
 
-        for (int i = 0; i < cloudletList.size(); i++) {
-            assert bestChrom != null;
-            Vm chosenVm = vmList.get(bestChrom[i]);
-            cloudletList.get(i).setVm(chosenVm);
-            broker0.submitCloudlet(cloudletList.get(i));
+            evaluations++;
+            int nrOfViolations = delta.evaluateChild(population.genes, population.offset(parent), parent, next, child, slot);
+            population.nextViolations[slot] = nrOfViolations;
+            return fitness(nrOfViolations, delta.getLastMakespan());
         }
 
-        simulation.start();
+        /* scores individuals [from, POP_SIZE) of the gene block in one batch */
+        private void scoreBatch(int[] genes, double[] fitness, int[] violations, int from) {
+            int count = POP_SIZE - from;
+            BatchScorer.transpose(genes, population.length, from, count, batchGenes);
+            batch.score(batchGenes, count);
+            for (int p = 0; p < count; p++) {
+                violations[from + p] = batch.violations(p);
+                fitness[from + p] = fitness(batch.violations(p), batch.makespan(p));
+            }
+            evaluations += count;
+        }
 
-    }
+        /* publishes this island's best individuals, then replaces its worst with the source island's latest ones */
+        private void migrate() {
+            int count = Math.min(migrationSize, POP_SIZE - 2);
+            int N = population.length;
+            int[] order = byFitnessDescending();
+
+            int[] genes = new int[count * N];
+            double[] fitness = new double[count];
+            int[] violations = new int[count];
+            for (int m = 0; m < count; m++) {
+                System.arraycopy(population.genes, population.offset(order[m]), genes, m * N, N);
+                fitness[m] = population.fitness[order[m]];
+                violations[m] = population.violations[order[m]];
+            }
+            exchange.set(index, new Migrants(genes, fitness, violations));
+
+            Migrants incoming = exchange.get(sourceIsland());
+            if (incoming == null)
+                return; // the source has not reached its first migration yet
+            for (int m = 0; m < incoming.fitness().length; m++) {
+                int worst = order[POP_SIZE - 1 - m];
+                System.arraycopy(incoming.genes(), m * N, population.genes, population.offset(worst), N);
+                population.fitness[worst] = incoming.fitness()[m];
+                population.violations[worst] = incoming.violations()[m];
+                if (delta != null) {
+                    // the timelines of a migrant are rebuilt by replaying it, which is charged like any scoring
+                    reservedEvaluations.incrementAndGet();
+                    evaluations++;
+                    delta.evaluate(population.genes, population.offset(worst), worst);
+                }
+            }
+        }
 
+        private int sourceIsland() {
+            if (topology == MigrationTopology.RING)
+                return (index + islands - 1) % islands;
+            int other = rng.nextInt(islands - 1);
+            return other >= index ? other + 1 : other;
+        }
 
-    /* ───────────────────────── Helper methods ───────────────────────── */
+        private int[] byFitnessDescending() {
+            Integer[] order = new Integer[POP_SIZE];
+            for (int i = 0; i < POP_SIZE; i++)
+                order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(population.fitness[b], population.fitness[a]));
+            int[] result = new int[POP_SIZE];
+            for (int i = 0; i < POP_SIZE; i++)
+                result[i] = order[i];
+            return result;
+        }
 
-    /* chromosome = int[ cloudletId ] → vmId */
-    private int[] randomChromosome(int N, int M) {
-        int[] genes = new int[N];
-        for (int i = 0; i < N; i++)
-            genes[i] = rng.nextInt(M);
-        return genes;
-    }
-
-    /* minimises makespan – bigger is better */
-    private double fitness(int[] chromosome) {
-        // iterate through the cloudlets
-        double[] finishTimes = new double[vmList.size()];
-        int nrOfViolations = 0;
-
-        for (int i = 0; i < chromosome.length; i++) {
-            DeadlineCloudlet currentCloudlet = cloudletList.get(i);
-            Vm currentVm = vmList.get(chromosome[i]);
-            if (finishTimes[chromosome[i]] > currentCloudlet.getSubmissionDelay()) {
-                // if the cloudlet is submitted after the VM is already busy, we need to wait
-                finishTimes[chromosome[i]] += currentCloudlet.getLength() / currentVm.getMips();
-            } else {
-                finishTimes[chromosome[i]] = currentCloudlet.getSubmissionDelay() + currentCloudlet.getLength() / currentVm.getMips();
+        /* scores the individual from scratch; slot is where it sits, for the delta timelines */
+        private double fitness(int[] genes, int offset, int slot) {
+            evaluations++;
+            int[] violations = genes == population.genes ? population.violations : population.nextViolations;
+            if (delta != null && genes == population.genes) {
+                int nrOfViolations = delta.evaluate(genes, offset, slot);
+                violations[slot] = nrOfViolations;
+                return fitness(nrOfViolations, delta.getLastMakespan());
             }
+            int nrOfViolations = model.evaluate(genes, offset);
+            violations[slot] = nrOfViolations;
+            return fitness(nrOfViolations, model.getLastMakespan());
+        }
+
+        /* minimises makespan – bigger is better */
+        private double fitness(int nrOfViolations, double makespan) {
+            return (double) 1 / (1 + nrOfViolations) + 0.01 * (((double) (CLOUDLET_LENGTH_MAX * (TOTAL_CLOUDLETS)) / 1000) / makespan); // Fitness function
 
-            if (finishTimes[chromosome[i]] > currentCloudlet.getDeadline()) {
-                    // if the cloudlet is finished after the deadline, we count it as a violation
-                    nrOfViolations++;
-            }
         }
-        // get the VM with the maximum finish time
-        double makespan = Arrays.stream(finishTimes).max().orElse(0.0);
 
-        return (double) 1 / (1 + nrOfViolations) + 0.01 * (((double) (CLOUDLET_LENGTH_MAX * (TOTAL_CLOUDLETS)) / 1000) / makespan); // Fitness function
+        /* individual i < HeuristicSeeds.COUNT is seed i as is, the others a perturbed copy of seed i mod COUNT */
+        private void seededChromosome(int[] genes, int offset, int i, int N, int M) {
+            System.arraycopy(seedGenes, (i % HeuristicSeeds.COUNT) * N, genes, offset, N);
+            if (i < HeuristicSeeds.COUNT)
+                return;
+            for (int g = 0; g < N; g++) {
+                if (rng.nextDouble() < SEED_PERTURBATION_P)
+                    genes[offset + g] = rng.nextInt(M);
+            }
+        }
 
+        /* chromosome = int[ cloudletId ] → vmId, stored at genes[offset ..] */
+        private void randomChromosome(int[] genes, int offset, int N, int M) {
+            for (int i = 0; i < N; i++)
+                genes[offset + i] = rng.nextInt(M);
+        }
     }
 
-    private int[] tournamentSelect(List<int[]> pop) {
-        int a = rng.nextInt(pop.size());
-        int b = rng.nextInt(pop.size());
+
+    /* ───────────────────────── Helper methods ───────────────────────── */
+
+    private static int tournamentSelect(GAPopulation pop, RandomGenerator rng) {
+        int a = rng.nextInt(pop.size);
+        int b = rng.nextInt(pop.size);
         /* pick the one with the *larger* fitness now */
-        return fitness(pop.get(a)) > fitness(pop.get(b))
-                ? pop.get(a)
-                : pop.get(b);
+        return pop.fitness[a] > pop.fitness[b] ? a : b;
     }
 
-    private void mutate(int[] genes, int vmCount) {
-        for (int i = 0; i < genes.length; i++)
+    private static void mutate(int[] genes, int offset, int length, int vmCount, RandomGenerator rng) {
+        for (int i = offset; i < offset + length; i++)
             if (rng.nextDouble() < MUTATION_P)
                 genes[i] = rng.nextInt(vmCount);
     }
-}
 
+    /** Number of sub-populations evolved in parallel, each of {@code POP_SIZE} individuals. */
+    public GAAlgorithm setIslands(int islands) {
+        if (islands < 1)
+            throw new IllegalArgumentException("At least one island is needed");
+        this.islands = islands;
+        return this;
+    }
+
+    /** Generations between two migrations. */
+    public GAAlgorithm setMigrationInterval(int migrationInterval) {
+        this.migrationInterval = Math.max(1, migrationInterval);
+        return this;
+    }
 
+    /** Individuals each island sends per migration; they replace the receiver's worst ones. */
+    public GAAlgorithm setMigrationSize(int migrationSize) {
+        this.migrationSize = Math.max(0, migrationSize);
+        return this;
+    }
+
+    public GAAlgorithm setMigrationTopology(MigrationTopology topology) {
+        this.topology = Objects.requireNonNull(topology);
+        return this;
+    }
+
+    /**
+     * Scores children incrementally from their parent's per-VM timelines instead of replaying
+     * all cloudlets; both give the same fitness. It pays off when children differ from their
+     * parent in few genes spread over few of many VMs. The default one-point crossover usually
+     * touches every VM queue, so it is off by default.
+     */
+    public GAAlgorithm setDeltaEvaluation(boolean deltaEvaluation) {
+        this.deltaEvaluation = deltaEvaluation;
+        return this;
+    }
+
+    /** Scores each new generation in one {@link BatchScorer} pass; delta evaluation takes precedence. */
+    public GAAlgorithm setBatchScoring(boolean batchScoring) {
+        this.batchScoring = batchScoring;
+        return this;
+    }
+
+    /** Upper bound on generations per island; the run may stop earlier on its time or evaluation budget. */
+    public GAAlgorithm setMaxGenerations(int maxGenerations) {
+        this.maxGenerations = Math.max(0, maxGenerations);
+        return this;
+    }
+
+    /**
+     * Wall-clock budget of the search, checked between generations, so a run overshoots it by at
+     * most one generation. The initial population is always scored. {@code null} removes the budget.
+     */
+    public GAAlgorithm setTimeBudget(Duration timeBudget) {
+        this.timeBudgetNanos = timeBudget == null ? Long.MAX_VALUE : Math.max(0, timeBudget.toNanos());
+        return this;
+    }
+
+    /**
+     * Chromosomes the search may score, over all islands. A generation is only started if it fits
+     * in what is left; the initial population is always scored. {@code 0} or less removes the budget.
+     */
+    public GAAlgorithm setEvaluationBudget(long evaluationBudget) {
+        this.evaluationBudget = evaluationBudget <= 0 ? Long.MAX_VALUE : evaluationBudget;
+        return this;
+    }
+
+    /**
+     * Builds the initial population from the round robin, FCFS, earliest-deadline-first and
+     * MIPS-weighted mappings ({@link HeuristicSeeds}) instead of uniformly random chromosomes;
+     * the rest of the population are copies of them with 10% of the genes redrawn.
+     */
+    public GAAlgorithm setHeuristicSeeding(boolean heuristicSeeding) {
+        this.heuristicSeeding = heuristicSeeding;
+        return this;
+    }
+
+    @Override
+    public GAAlgorithm setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /* islands migrate without waiting for each other, so more than one only repeats without migration */
+    @Override
+    public String cacheKey() {
+        if (timeBudgetNanos != Long.MAX_VALUE || (islands > 1 && migrationSize > 0))
+            return null;
+        return String.format("%s pop=%d crossover=%s mutation=%s perturbation=%s islands=%d generations=%d "
+                        + "evaluations=%d delta=%b batch=%b heuristicSeeding=%b seed=%d",
+                getClass().getName(), POP_SIZE, CROSSOVER_P, MUTATION_P, SEED_PERTURBATION_P, islands,
+                maxGenerations, evaluationBudget, deltaEvaluation, batchScoring, heuristicSeeding, seed);
+    }
+
+    /** Chromosomes scored per second by the last run. */
+    public double getLastEvaluationsPerSecond() {
+        return lastEvaluationsPerSecond;
+    }
+
+    /** Generations, evaluations and convergence trace of the last run; {@code null} before the first. */
+    public RunStatistics getLastRunStatistics() {
+        return lastRunStatistics;
+    }
+}
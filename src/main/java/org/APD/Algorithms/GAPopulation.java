@@ -0,0 +1,78 @@
+package org.APD.Algorithms;
+
+/**
+ * GA population in struct-of-arrays form.
+ * <p>
+ * The genes of all individuals live in one {@code int[size * length]} block, individual
+ * {@code i} being the slice {@code [i * length, (i + 1) * length)}, next to a {@code double[size]}
+ * of fitness values and an {@code int[size]} of the violation counts they were computed from. A second pair of arrays holds the generation being bred; {@link #swap()}
+ * makes it current, so no chromosome is allocated or cloned once the population exists.
+ * </p>
+ */
+class GAPopulation {
+
+    final int size;
+    final int length;
+
+    int[] genes;
+    double[] fitness;
+    int[] violations;
+    int[] nextGenes;
+    double[] nextFitness;
+    int[] nextViolations;
+
+    GAPopulation(int size, int length) {
+        if (size < 2)
+            throw new IllegalArgumentException("A population needs at least two individuals");
+        long cells = (long) size * length;
+        if (cells > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Population too large: " + size + " x " + length);
+        this.size = size;
+        this.length = length;
+        genes = new int[(int) cells];
+        nextGenes = new int[(int) cells];
+        fitness = new double[size];
+        nextFitness = new double[size];
+        violations = new int[size];
+        nextViolations = new int[size];
+    }
+
+    /** Start of individual {@code i}'s genes in {@link #genes} or {@link #nextGenes}. */
+    int offset(int i) {
+        return i * length;
+    }
+
+    /** Copies individual {@code from} of the current generation, fitness included, to slot {@code to} of the next. */
+    void carryOver(int from, int to) {
+        System.arraycopy(genes, offset(from), nextGenes, offset(to), length);
+        nextFitness[to] = fitness[from];
+        nextViolations[to] = violations[from];
+    }
+
+    /** Makes the generation being bred the current one; the old one becomes the next buffer. */
+    void swap() {
+        int[] g = genes; genes = nextGenes; nextGenes = g;
+        double[] f = fitness; fitness = nextFitness; nextFitness = f;
+        int[] v = violations; violations = nextViolations; nextViolations = v;
+    }
+
+    /** Index of the fittest individual of the current generation. */
+    int best() {
+        int best = 0;
+        for (int i = 1; i < size; i++) {
+            if (fitness[i] > fitness[best])
+                best = i;
+        }
+        return best;
+    }
+
+    /** Index of the fittest individual other than {@code excluded}. */
+    int bestExcept(int excluded) {
+        int best = excluded == 0 ? 1 : 0;
+        for (int i = 0; i < size; i++) {
+            if (i != excluded && fitness[i] > fitness[best])
+                best = i;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,109 @@
+package org.APD.Algorithms;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Cloudlet → VM mappings of the simple schedulers, written as chromosomes over a
+ * {@link SpaceSharedSurrogate}, to seed a GA population with.
+ * <p>
+ * Every rule writes {@code genes[offset + cloudlet] = vm} for all cloudlets, in the
+ * surrogate's arrival order, and starts from the VMs' ready times.
+ * </p>
+ */
+final class HeuristicSeeds {
+
+    /** Number of mappings written by {@link #write(SpaceSharedSurrogate, int, int[], int)}. */
+    static final int COUNT = 4;
+
+    private HeuristicSeeds() {
+    }
+
+    /** Writes mapping {@code rule} (0 ≤ rule < {@link #COUNT}) to {@code genes[offset ..]}. */
+    static void write(SpaceSharedSurrogate model, int rule, int[] genes, int offset) {
+        switch (rule) {
+            case 0 -> roundRobin(model, genes, offset);
+            case 1 -> firstComeFirstServed(model, genes, offset);
+            case 2 -> earliestDeadlineFirst(model, genes, offset);
+            case 3 -> mipsWeighted(model, genes, offset);
+            default -> throw new IllegalArgumentException("No heuristic " + rule);
+        }
+    }
+
+    /** Cloudlet {@code i} goes to VM {@code i mod M}, as in {@link RoundRobinAlgorithm}. */
+    static void roundRobin(SpaceSharedSurrogate model, int[] genes, int offset) {
+        int m = model.vmCount();
+        for (int c = 0; c < model.cloudletCount(); c++)
+            genes[offset + c] = c % m;
+    }
+
+    /**
+     * In arrival order, each cloudlet takes the VM that becomes free first (the lowest index on ties),
+     * as {@link FCFSAlgorithm_bin} does when it hands the queue head to the next free VM.
+     */
+    static void firstComeFirstServed(SpaceSharedSurrogate model, int[] genes, int offset) {
+        double[] freeAt = new double[model.vmCount()];
+        model.copyVmReadyTimes(freeAt);
+        for (int c = 0; c < model.cloudletCount(); c++) {
+            int vm = 0;
+            for (int j = 1; j < freeAt.length; j++) {
+                if (freeAt[j] < freeAt[vm])
+                    vm = j;
+            }
+            genes[offset + c] = vm;
+            freeAt[vm] = Math.max(model.arrival(c), freeAt[vm]) + model.length(c) / model.mips(vm);
+        }
+    }
+
+    /** In deadline order, each cloudlet takes the VM on which it would finish first. */
+    static void earliestDeadlineFirst(SpaceSharedSurrogate model, int[] genes, int offset) {
+        double[] freeAt = new double[model.vmCount()];
+        model.copyVmReadyTimes(freeAt);
+        int[] order = IntStream.range(0, model.cloudletCount()).boxed()
+                .sorted(Comparator.comparingDouble(model::deadline))
+                .mapToInt(Integer::intValue).toArray();
+        for (int c : order) {
+            int best = 0;
+            double bestFinish = Double.POSITIVE_INFINITY;
+            for (int vm = 0; vm < freeAt.length; vm++) {
+                double finish = Math.max(model.arrival(c), freeAt[vm]) + model.length(c) / model.mips(vm);
+                if (finish < bestFinish) {
+                    bestFinish = finish;
+                    best = vm;
+                }
+            }
+            genes[offset + c] = best;
+            freeAt[best] = bestFinish;
+        }
+    }
+
+    /** In arrival order, each cloudlet takes the VM whose assigned work over its MIPS stays the lowest. */
+    static void mipsWeighted(SpaceSharedSurrogate model, int[] genes, int offset) {
+        double[] load = new double[model.vmCount()];
+        model.copyVmReadyTimes(load);
+        for (int vm = 0; vm < load.length; vm++)
+            load[vm] *= model.mips(vm); // ready time as work already queued
+        for (int c = 0; c < model.cloudletCount(); c++) {
+            int best = 0;
+            double bestLoad = Double.POSITIVE_INFINITY;
+            for (int vm = 0; vm < load.length; vm++) {
+                double after = (load[vm] + model.length(c)) / model.mips(vm);
+                if (after < bestLoad) {
+                    bestLoad = after;
+                    best = vm;
+                }
+            }
+            genes[offset + c] = best;
+            load[best] += model.length(c);
+        }
+    }
+
+    /** Writes all {@link #COUNT} mappings one after the other into a new {@code int[COUNT * N]}. */
+    static int[] all(SpaceSharedSurrogate model) {
+        int n = model.cloudletCount();
+        int[] genes = new int[COUNT * n];
+        for (int rule = 0; rule < COUNT; rule++)
+            write(model, rule, genes, rule * n);
+        return genes;
+    }
+}
@@ -0,0 +1,246 @@
+package org.APD.Algorithms;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Simulated annealing over a finished cloudlet → VM assignment, on the FIFO model of
+ * {@link SpaceSharedSurrogate}.
+ * <p>
+ * The neighbourhood is moving one cloudlet to another VM, or swapping the VMs of two cloudlets.
+ * Each VM's queue is kept as an array of cloudlets in arrival order with their finish times,
+ * so a move only touches the two queues involved: the cloudlet is found and inserted at its
+ * arrival position by binary search, and each queue is replayed from there until a finish time
+ * comes out unchanged, since everything after it is then unchanged too. With idle gaps between
+ * arrivals that is a handful of cloudlets, whatever the queue length. The makespan is the root of
+ * a max tree over the VMs' last finish times, of which a move updates the two leaves it touched.
+ * </p>
+ * <p>
+ * The cost is the number of violations, with the makespan as a tie-breaker below one violation.
+ * Worse neighbours are accepted with the Metropolis rule under a temperature that cools
+ * geometrically over the time budget, or over the moves when they are capped. Not thread-safe.
+ * </p>
+ */
+public class LocalSearchPolisher {
+
+    private static final double START_TEMPERATURE = 0.5; // in violations
+    private static final double END_TEMPERATURE   = 0.01;
+    private static final double SWAP_P            = 0.3; // share of swap moves, the rest are single moves
+    private static final int CLOCK_CHECK_INTERVAL = 256; // moves between two updates of the temperature
+
+    private final SpaceSharedSurrogate model;
+    private final int n;
+    private final int m;
+    private final double[] readyAt;
+
+    /* per-VM queues in arrival order */
+    private final int[][] queue;
+    private final int[] queueSize;
+    private final double[] finish; // finish time of each cloudlet
+    private final double[] tails;  // max tree of each VM's last finish time, VM vm's leaf at m + vm, the makespan at 1
+    private final int[] assignment;
+
+    private int violations;
+    private int bestViolations;
+    private long movesTried;
+    private long movesAccepted;
+
+    public LocalSearchPolisher(SpaceSharedSurrogate model) {
+        this.model = model;
+        n = model.cloudletCount();
+        m = model.vmCount();
+        readyAt = new double[m];
+        model.copyVmReadyTimes(readyAt);
+        queue = new int[m][];
+        queueSize = new int[m];
+        finish = new double[n];
+        tails = new double[2 * m];
+        assignment = new int[n];
+    }
+
+    /**
+     * Improves {@code start} for {@code budget}, or for {@code maxMoves} tried moves when that is
+     * positive, and returns the best assignment seen. With a move cap the clock is not read, so the
+     * same seed gives the same assignment however fast the machine is. {@code start} is left unchanged.
+     */
+    public int[] polish(int[] start, Duration budget, long maxMoves, long seed) {
+        load(start);
+        SplittableRandom rng = new SplittableRandom(seed);
+        long begin = System.nanoTime();
+        long budgetNanos = Math.max(1, budget.toNanos());
+        boolean timed = maxMoves <= 0;
+        long limit = timed ? Long.MAX_VALUE : maxMoves;
+
+        double cost = cost();
+        int[] best = assignment.clone();
+        double bestCost = cost;
+        bestViolations = violations;
+        double temperature = START_TEMPERATURE;
+        movesTried = 0;
+        movesAccepted = 0;
+
+        while (movesTried < limit && m > 1 && n > 0) {
+            if (movesTried % CLOCK_CHECK_INTERVAL == 0) {
+                double progress = timed ? (double) (System.nanoTime() - begin) / budgetNanos
+                        : (double) movesTried / limit;
+                if (progress >= 1)
+                    break;
+                temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, progress);
+            }
+            movesTried++;
+
+            int c1 = rng.nextInt(n);
+            int from1 = assignment[c1];
+            int c2 = -1;
+            int from2 = -1;
+            if (rng.nextDouble() < SWAP_P) {
+                c2 = rng.nextInt(n);
+                from2 = assignment[c2];
+                if (from2 == from1)
+                    continue;
+                move(c1, from2);
+                move(c2, from1);
+            } else {
+                int to = rng.nextInt(m - 1);
+                move(c1, to >= from1 ? to + 1 : to);
+            }
+
+            double candidate = cost();
+            double delta = candidate - cost;
+            if (delta <= 0 || rng.nextDouble() < Math.exp(-delta / temperature)) {
+                cost = candidate;
+                movesAccepted++;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestViolations = violations;
+                    System.arraycopy(assignment, 0, best, 0, n);
+                }
+            } else {
+                move(c1, from1);
+                if (c2 >= 0)
+                    move(c2, from2);
+            }
+        }
+        return best;
+    }
+
+    /* builds the queues and finish times of the assignment from scratch */
+    private void load(int[] start) {
+        System.arraycopy(start, 0, assignment, 0, n);
+        int[] counts = new int[m];
+        for (int c = 0; c < n; c++)
+            counts[assignment[c]]++;
+        for (int vm = 0; vm < m; vm++) {
+            queue[vm] = new int[Math.max(4, counts[vm] * 2)];
+            queueSize[vm] = 0;
+        }
+        for (int c = 0; c < n; c++) {
+            int vm = assignment[c];
+            queue[vm][queueSize[vm]++] = c;
+        }
+        violations = 0;
+        for (int vm = 0; vm < m; vm++) {
+            double free = readyAt[vm];
+            for (int k = 0; k < queueSize[vm]; k++) {
+                int c = queue[vm][k];
+                free = Math.max(model.arrival(c), free) + model.length(c) / model.mips(vm);
+                finish[c] = free;
+                if (free > model.deadline(c)) violations++;
+            }
+            tails[m + vm] = queueSize[vm] > 0 ? free : 0;
+        }
+        for (int i = m - 1; i >= 1; i--)
+            tails[i] = Math.max(tails[2 * i], tails[2 * i + 1]);
+    }
+
+    /* moves cloudlet c to VM to, keeping both queues' finish times and the violation count up to date */
+    private void move(int c, int to) {
+        int from = assignment[c];
+        if (from == to)
+            return;
+
+        // take it out of its queue, then replay the cloudlets that followed it
+        int[] q = queue[from];
+        int at = insertionPoint(from, c); // its own index, the queue being sorted by cloudlet
+        if (finish[c] > model.deadline(c)) violations--;
+        System.arraycopy(q, at + 1, q, at, queueSize[from] - at - 1);
+        queueSize[from]--;
+        replay(from, at, at);
+
+        // insert it at its arrival position in the other queue, then replay from it
+        if (queueSize[to] == queue[to].length)
+            queue[to] = Arrays.copyOf(queue[to], queue[to].length * 2);
+        q = queue[to];
+        int insert = insertionPoint(to, c);
+        System.arraycopy(q, insert, q, insert + 1, queueSize[to] - insert);
+        q[insert] = c;
+        queueSize[to]++;
+        assignment[c] = to;
+        finish[c] = Double.NaN; // not yet counted as late or on time
+        replay(to, insert, insert + 1);
+        updateTail(from);
+        updateTail(to);
+    }
+
+    /* refreshes vm's leaf of the max tree and the maxima above it */
+    private void updateTail(int vm) {
+        int i = m + vm;
+        tails[i] = queueSize[vm] > 0 ? finish[queue[vm][queueSize[vm] - 1]] : 0;
+        for (i >>= 1; i >= 1; i >>= 1)
+            tails[i] = Math.max(tails[2 * i], tails[2 * i + 1]);
+    }
+
+    /*
+     * recomputes finish times of vm's queue from index from; past index firstKnown a finish time that
+     * comes out unchanged ends the replay, as it leaves everything after it unchanged
+     */
+    private void replay(int vm, int from, int firstKnown) {
+        int[] q = queue[vm];
+        double free = from == 0 ? readyAt[vm] : finish[q[from - 1]];
+        double mips = model.mips(vm);
+        for (int k = from; k < queueSize[vm]; k++) {
+            int c = q[k];
+            double f = Math.max(model.arrival(c), free) + model.length(c) / mips;
+            if (k >= firstKnown && f == finish[c])
+                return;
+            boolean wasLate = finish[c] > model.deadline(c); // false for NaN
+            boolean late = f > model.deadline(c);
+            if (wasLate != late) violations += late ? 1 : -1;
+            finish[c] = f;
+            free = f;
+        }
+    }
+
+    /* first index of vm's queue holding a cloudlet not before c in the surrogate's order, i.e. with index >= c */
+    private int insertionPoint(int vm, int c) {
+        int[] q = queue[vm];
+        int lo = 0, hi = queueSize[vm];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (q[mid] < c) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /* violations, then makespan scaled below one violation */
+    private double cost() {
+        double makespan = m > 0 ? tails[1] : 0;
+        return violations + makespan / (1 + makespan);
+    }
+
+    /** Violations of the assignment returned by the last {@link #polish} call. */
+    public int getBestViolations() {
+        return bestViolations;
+    }
+
+    /** Moves tried by the last {@link #polish} call, swaps counting as one. */
+    public long getMovesTried() {
+        return movesTried;
+    }
+
+    public long getMovesAccepted() {
+        return movesAccepted;
+    }
+}
@@ -0,0 +1,123 @@
+package org.APD.Algorithms;
+
+/**
+ * Max-Min Ant System variant of {@link ACOAlgorithm}.
+ * <ul>
+ *   <li>Trails are kept inside [τmin, τmax], recomputed from the best-so-far fitness
+ *       instead of the fixed {@link #MIN_PHEROMONE_LEVEL}/{@link #MAX_PHEROMONE_LEVEL}.</li>
+ *   <li>Only one ant deposits per iteration: the iteration-best one, and the global-best one
+ *       every {@code globalBestInterval} iterations.</li>
+ *   <li>When the λ-branching factor says the trails have collapsed on one VM per cloudlet,
+ *       they are reset to τmax so the colony explores again.</li>
+ *   <li>The search stops early when the best-so-far ant has not improved for
+ *       {@code stagnationLimit} iterations; {@link #getIterationsUsed()} tells how many ran.</li>
+ * </ul>
+ */
+public class MaxMinACOAlgorithm extends ACOAlgorithm {
+
+    // probability that a converged colony still builds the best-so-far allocation, used to derive τmin
+    protected double pBest = 0.05;
+    protected int globalBestInterval = 3;
+    protected double branchingLambda = 0.05;
+    // average branching factor at or below which the trails are re-initialised
+    protected double convergedBranchingFactor = 1.1;
+    protected int stagnationLimit = 10;
+
+    private double tauMin;
+    private double tauMax;
+    private int iterationsWithoutImprovement;
+    private int reinitialisations;
+
+    public MaxMinACOAlgorithm() {
+        super();
+    }
+
+    public MaxMinACOAlgorithm(int numAnts, int iterations, double evaporationRate) {
+        super(numAnts, iterations, evaporationRate);
+    }
+
+    @Override
+    protected boolean updateTrails(int iter, Ant iterationBest, boolean improved, PheromoneMatrix pheromoneMatrix) {
+        if (iter == 0) {
+            iterationsWithoutImprovement = 0;
+            reinitialisations = 0;
+            updateBounds(pheromoneMatrix.cloudlets(), pheromoneMatrix.vms());
+            // MMAS starts from the upper bound, so early iterations explore as much as possible,
+            // unless the trails were warm-started from a snapshot
+            if (!warmStarted)
+                pheromoneMatrix.fill(tauMax);
+        } else if (improved) {
+            updateBounds(pheromoneMatrix.cloudlets(), pheromoneMatrix.vms());
+        }
+
+        pheromoneMatrix.evaporate(evaporationRate, tauMin, tauMax);
+
+        Ant depositor = (iter + 1) % globalBestInterval == 0 ? bestSoFar : iterationBest;
+        int[] vmAssignment = depositor.getVmAssignment();
+        double deltaPheromone = depositor.getFitness();
+        for (int cloudlet = 0; cloudlet < vmAssignment.length; cloudlet++) {
+            pheromoneMatrix.deposit(cloudlet, vmAssignment[cloudlet], deltaPheromone, tauMax);
+        }
+
+        if (pheromoneMatrix.averageBranchingFactor(tauMin, tauMax, branchingLambda) <= convergedBranchingFactor) {
+            pheromoneMatrix.fill(tauMax);
+            reinitialisations++;
+        }
+
+        iterationsWithoutImprovement = improved ? 0 : iterationsWithoutImprovement + 1;
+        return iterationsWithoutImprovement < stagnationLimit;
+    }
+
+    /* τmax = best fitness / ρ, and τmin so that a converged colony rebuilds the best plan with probability pBest */
+    private void updateBounds(int cloudlets, int vms) {
+        tauMax = bestSoFar.getFitness() / evaporationRate;
+
+        double pDec = Math.pow(pBest, 1.0 / Math.max(1, cloudlets));
+        double avgChoices = Math.max(2.0, vms / 2.0);
+        tauMin = Math.min(tauMax, tauMax * (1 - pDec) / ((avgChoices - 1) * pDec));
+    }
+
+    public MaxMinACOAlgorithm setPBest(double pBest) {
+        if (pBest <= 0 || pBest >= 1)
+            throw new IllegalArgumentException("pBest must be in (0, 1)");
+        this.pBest = pBest;
+        return this;
+    }
+
+    public MaxMinACOAlgorithm setGlobalBestInterval(int globalBestInterval) {
+        this.globalBestInterval = Math.max(1, globalBestInterval);
+        return this;
+    }
+
+    public MaxMinACOAlgorithm setBranchingLambda(double branchingLambda) {
+        this.branchingLambda = branchingLambda;
+        return this;
+    }
+
+    public MaxMinACOAlgorithm setConvergedBranchingFactor(double convergedBranchingFactor) {
+        this.convergedBranchingFactor = convergedBranchingFactor;
+        return this;
+    }
+
+    /** Number of iterations without a new best-so-far ant after which the search ends. */
+    public MaxMinACOAlgorithm setStagnationLimit(int stagnationLimit) {
+        this.stagnationLimit = Math.max(1, stagnationLimit);
+        return this;
+    }
+
+    @Override
+    public String cacheKey() {
+        String key = super.cacheKey();
+        return key == null ? null : String.format("%s pBest=%s globalBestInterval=%d lambda=%s converged=%s stagnation=%d",
+                key, pBest, globalBestInterval, branchingLambda, convergedBranchingFactor, stagnationLimit);
+    }
+
+    public int getReinitialisations() {
+        return reinitialisations;
+    }
+
+    @Override
+    public String getName() {
+        return "MMAS";
+    }
+}
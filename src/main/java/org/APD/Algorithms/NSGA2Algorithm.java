@@ -0,0 +1,458 @@
+package org.APD.Algorithms;
+/*  ──────────────────────────────────────────────────────────────────────
+    NSGA2Algorithm.java – energy vs SLA trade-off in one optimisation
+    ----------------------------------------------------------------------
+    Each individual is a cloudlet → VM assignment plus one P-state per host.
+    The two objectives, both minimised, are the SLA violations and the
+    energy the hosts draw until the last cloudlet finishes.
+   ────────────────────────────────────────────────────────────────────── */
+
+import ch.qos.logback.classic.Level;
+import org.APD.AlgorithmResult;
+import org.APD.RelevantDataForAlgorithms;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.util.Log;
+import org.cloudsimplus.vms.Vm;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class NSGA2Algorithm extends BaseSchedulingAlgorithm {
+
+    /* NSGA-II hyperparameters */
+    private static final int POP_SIZE       = 40;     // parents, and as many children per generation
+    private static final int MAX_GENERATION = 60;     // iterations
+    private static final double CROSSOVER_P = 0.9;    // probability
+    private static final double MUTATION_P  = 0.02;   // probability per assignment gene
+
+    // parents and the children bred from them are ranked together
+    private static final int COMBINED = 2 * POP_SIZE;
+
+    /* Settings */
+    private long seed = ThreadLocalRandom.current().nextLong();
+    // scores the children of each generation in parallel; null scores them in order on the calling thread
+    private ForkJoinPool evaluationPool = ForkJoinPool.commonPool();
+    // run() simulates the lowest-energy plan of the front with at most this share of violations
+    private double slaViolationLimit = 0;
+
+    /* Results of the last run */
+    private List<ParetoSolution> lastParetoFront = List.of();
+    private ParetoSolution lastSimulatedSolution;
+
+    /* Combined population in struct-of-arrays form: individual i at genes[i * N ..] and states[i * H ..] */
+    private int N;
+    private int M;
+    private int H;
+    private int[] genes, nextGenes;
+    private int[] states, nextStates;
+    private int[] violations, nextViolations;
+    private double[] energy, nextEnergy;
+    private double[] makespan, nextMakespan;
+    private int[] rank, nextRank;
+    private double[] crowding, nextCrowding;
+
+    /** One plan of the Pareto front. */
+    public record ParetoSolution(int violations, double energy, double makespan, int[] pStates, int[] assignment) { }
+
+    public static void main(String[] args) {
+        Log.setLevel(Level.OFF);
+        new NSGA2Algorithm();
+    }
+
+    public NSGA2Algorithm() {
+    }
+
+    @Override
+    public AlgorithmResult run(RelevantDataForAlgorithms relevantData) {
+
+        copyGivenDataLocally(relevantData);
+
+        algorithmNSGA2();
+
+        return new AlgorithmResult("NSGA-II", cloudletList, hostList, vmList, broker0.getCloudletFinishedList(), 0);
+    }
+
+    @Override
+    public String getName() {
+        return "NSGA-II";
+    }
+
+    private void algorithmNSGA2() {
+
+        // primitive copy of the workload and of the hosts' P-states, every individual is scored against them
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(cloudletList, vmList);
+        PStateModel pStateModel = new PStateModel(hostList, vmList);
+
+        N = model.cloudletCount();
+        M = model.vmCount();
+        H = pStateModel.hostCount();
+        allocatePopulation();
+
+        SplittableRandom rng = new SplittableRandom(seed);
+        SpaceSharedSurrogate[] scratch = new SpaceSharedSurrogate[COMBINED];
+        double[][] vmMips = new double[COMBINED][M];
+        double[][] vmBusy = new double[COMBINED][M];
+        for (int i = 0; i < COMBINED; i++)
+            scratch[i] = model.withOwnScratch();
+
+        /* ---------- 1. Initial population: the heuristic mappings at full speed, then random plans ---------- */
+        int[] top = pStateModel.topStates();
+        for (int i = 0; i < POP_SIZE; i++) {
+            if (i < HeuristicSeeds.COUNT) {
+                HeuristicSeeds.write(model, i, genes, i * N);
+                System.arraycopy(top, 0, states, i * H, H);
+            } else {
+                for (int g = 0; g < N; g++)
+                    genes[i * N + g] = rng.nextInt(M);
+                for (int h = 0; h < H; h++)
+                    states[i * H + h] = rng.nextInt(pStateModel.stateCount(h));
+            }
+        }
+        evaluate(0, POP_SIZE, scratch, vmMips, vmBusy, pStateModel);
+        rankAndCrowd(POP_SIZE);
+
+        /* ---------- 2. Evolution loop ---------------------------------------------------------------------- */
+        for (int gen = 0; gen < MAX_GENERATION; gen++) {
+            breedChildren(rng, pStateModel);
+            evaluate(POP_SIZE, COMBINED, scratch, vmMips, vmBusy, pStateModel);
+            selectSurvivors();
+        }
+
+        lastParetoFront = paretoFront();
+        lastSimulatedSolution = chooseSolution(lastParetoFront);
+
+        /* ---------- 3. Build and run CloudSim with the chosen plan's P-states and assignment ---------------- */
+        HostVmPair moved = pStateModel.apply(this, hostList, vmList, lastSimulatedSolution.pStates());
+        hostList = moved.hosts();
+        vmList = moved.vms();
+
+        simulation = new CloudSimPlus();
+        Datacenter datacenter0 = createDatacenter(simulation, hostList);
+        broker0 = new DatacenterBrokerSimple(simulation);
+        broker0.submitVmList(vmList);
+
+        int[] assignment = lastSimulatedSolution.assignment();
+        for (int i = 0; i < cloudletList.size(); i++) {
+            Vm chosenVm = vmList.get(assignment[i]);
+            cloudletList.get(i).setVm(chosenVm);
+            broker0.submitCloudlet(cloudletList.get(i));
+        }
+
+        simulation.start();
+    }
+
+    private void allocatePopulation() {
+        genes = new int[COMBINED * N];
+        nextGenes = new int[COMBINED * N];
+        states = new int[COMBINED * H];
+        nextStates = new int[COMBINED * H];
+        violations = new int[COMBINED];
+        nextViolations = new int[COMBINED];
+        energy = new double[COMBINED];
+        nextEnergy = new double[COMBINED];
+        makespan = new double[COMBINED];
+        nextMakespan = new double[COMBINED];
+        rank = new int[COMBINED];
+        nextRank = new int[COMBINED];
+        crowding = new double[COMBINED];
+        nextCrowding = new double[COMBINED];
+    }
+
+    /* scores individuals [from, to) in parallel; each has its own surrogate scratch and MIPS / busy arrays */
+    private void evaluate(int from, int to, SpaceSharedSurrogate[] scratch, double[][] vmMips, double[][] vmBusy,
+                          PStateModel pStateModel) {
+        List<Runnable> tasks = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            final int individual = i;
+            tasks.add(() -> {
+                pStateModel.vmMips(states, individual * H, vmMips[individual]);
+                SpaceSharedSurrogate surrogate = scratch[individual];
+                violations[individual] = surrogate.evaluate(genes, individual * N, vmMips[individual], vmBusy[individual]);
+                makespan[individual] = surrogate.getLastMakespan();
+                energy[individual] = pStateModel.energy(states, individual * H, vmBusy[individual], makespan[individual]);
+            });
+        }
+        if (evaluationPool == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        List<ForkJoinTask<?>> submitted = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks)
+            submitted.add(evaluationPool.submit(task));
+        for (ForkJoinTask<?> task : submitted)
+            task.join();
+    }
+
+    /* fills [POP_SIZE, COMBINED) with children of tournament-selected parents */
+    private void breedChildren(SplittableRandom rng, PStateModel pStateModel) {
+        for (int child = POP_SIZE; child < COMBINED; child += 2) {
+            int parent1 = tournamentSelect(rng);
+            int parent2 = tournamentSelect(rng);
+            int c1 = child, c2 = child + 1;
+
+            System.arraycopy(genes, parent1 * N, genes, c1 * N, N);
+            System.arraycopy(genes, parent2 * N, genes, c2 * N, N);
+            System.arraycopy(states, parent1 * H, states, c1 * H, H);
+            System.arraycopy(states, parent2 * H, states, c2 * H, H);
+
+            if (rng.nextDouble() < CROSSOVER_P) {
+                // one-point crossover of the assignments, uniform crossover of the P-states
+                int cut = rng.nextInt(N);
+                for (int g = cut; g < N; g++) {
+                    int t = genes[c1 * N + g];
+                    genes[c1 * N + g] = genes[c2 * N + g];
+                    genes[c2 * N + g] = t;
+                }
+                for (int h = 0; h < H; h++) {
+                    if (rng.nextBoolean()) {
+                        int t = states[c1 * H + h];
+                        states[c1 * H + h] = states[c2 * H + h];
+                        states[c2 * H + h] = t;
+                    }
+                }
+            }
+            mutate(c1, rng, pStateModel);
+            mutate(c2, rng, pStateModel);
+        }
+    }
+
+    /* redraws each assignment gene with MUTATION_P and each host's P-state with 1 / H */
+    private void mutate(int individual, SplittableRandom rng, PStateModel pStateModel) {
+        for (int g = individual * N; g < (individual + 1) * N; g++) {
+            if (rng.nextDouble() < MUTATION_P)
+                genes[g] = rng.nextInt(M);
+        }
+        for (int h = 0; h < H; h++) {
+            if (rng.nextDouble() < 1.0 / H)
+                states[individual * H + h] = rng.nextInt(pStateModel.stateCount(h));
+        }
+    }
+
+    /* binary tournament on (rank, crowding distance) among the parents */
+    private int tournamentSelect(SplittableRandom rng) {
+        int a = rng.nextInt(POP_SIZE);
+        int b = rng.nextInt(POP_SIZE);
+        if (rank[a] != rank[b])
+            return rank[a] < rank[b] ? a : b;
+        return crowding[a] >= crowding[b] ? a : b;
+    }
+
+    /* keeps the best POP_SIZE of parents and children, front by front, the last front cut by crowding distance */
+    private void selectSurvivors() {
+        List<int[]> fronts = rankAndCrowd(COMBINED);
+        int kept = 0;
+        for (int[] front : fronts) {
+            if (kept == POP_SIZE)
+                break;
+            int[] members = front;
+            if (kept + front.length > POP_SIZE) {
+                members = Arrays.stream(front).boxed()
+                        .sorted(Comparator.comparingDouble((Integer i) -> crowding[i]).reversed())
+                        .limit(POP_SIZE - kept)
+                        .mapToInt(Integer::intValue).toArray();
+            }
+            for (int i : members)
+                moveToNext(i, kept++);
+        }
+        swap();
+    }
+
+    private void moveToNext(int from, int to) {
+        System.arraycopy(genes, from * N, nextGenes, to * N, N);
+        System.arraycopy(states, from * H, nextStates, to * H, H);
+        nextViolations[to] = violations[from];
+        nextEnergy[to] = energy[from];
+        nextMakespan[to] = makespan[from];
+        nextRank[to] = rank[from];
+        nextCrowding[to] = crowding[from];
+    }
+
+    private void swap() {
+        int[] g = genes; genes = nextGenes; nextGenes = g;
+        int[] s = states; states = nextStates; nextStates = s;
+        int[] v = violations; violations = nextViolations; nextViolations = v;
+        double[] e = energy; energy = nextEnergy; nextEnergy = e;
+        double[] m = makespan; makespan = nextMakespan; nextMakespan = m;
+        int[] r = rank; rank = nextRank; nextRank = r;
+        double[] c = crowding; crowding = nextCrowding; nextCrowding = c;
+    }
+
+    /**
+     * Fast non-dominated sort of individuals [0, size), then the crowding distance inside each front.
+     * Sets {@link #rank} and {@link #crowding} and returns the fronts, best first.
+     */
+    private List<int[]> rankAndCrowd(int size) {
+        int[] dominatedByCount = new int[size];
+        int[][] dominates = new int[size][size];
+        int[] dominatesCount = new int[size];
+        for (int p = 0; p < size; p++) {
+            for (int q = p + 1; q < size; q++) {
+                if (dominates(p, q)) {
+                    dominates[p][dominatesCount[p]++] = q;
+                    dominatedByCount[q]++;
+                } else if (dominates(q, p)) {
+                    dominates[q][dominatesCount[q]++] = p;
+                    dominatedByCount[p]++;
+                }
+            }
+        }
+
+        List<int[]> fronts = new ArrayList<>();
+        int[] front = new int[size];
+        int frontSize = 0;
+        for (int p = 0; p < size; p++) {
+            if (dominatedByCount[p] == 0) {
+                rank[p] = 0;
+                front[frontSize++] = p;
+            }
+        }
+        while (frontSize > 0) {
+            int[] current = Arrays.copyOf(front, frontSize);
+            fronts.add(current);
+            crowdingDistance(current);
+            frontSize = 0;
+            for (int p : current) {
+                for (int k = 0; k < dominatesCount[p]; k++) {
+                    int q = dominates[p][k];
+                    if (--dominatedByCount[q] == 0) {
+                        rank[q] = fronts.size();
+                        front[frontSize++] = q;
+                    }
+                }
+            }
+        }
+        return fronts;
+    }
+
+    /* a dominates b: no worse in both objectives and better in one */
+    private boolean dominates(int a, int b) {
+        return violations[a] <= violations[b] && energy[a] <= energy[b]
+                && (violations[a] < violations[b] || energy[a] < energy[b]);
+    }
+
+    private void crowdingDistance(int[] front) {
+        for (int i : front)
+            crowding[i] = 0;
+        if (front.length <= 2) {
+            for (int i : front)
+                crowding[i] = Double.POSITIVE_INFINITY;
+            return;
+        }
+        Integer[] order = Arrays.stream(front).boxed().toArray(Integer[]::new);
+
+        Arrays.sort(order, Comparator.comparingInt(i -> violations[i]));
+        double span = violations[order[order.length - 1]] - violations[order[0]];
+        crowding[order[0]] = crowding[order[order.length - 1]] = Double.POSITIVE_INFINITY;
+        for (int k = 1; k < order.length - 1 && span > 0; k++)
+            crowding[order[k]] += (violations[order[k + 1]] - violations[order[k - 1]]) / span;
+
+        Arrays.sort(order, Comparator.comparingDouble(i -> energy[i]));
+        span = energy[order[order.length - 1]] - energy[order[0]];
+        crowding[order[0]] = crowding[order[order.length - 1]] = Double.POSITIVE_INFINITY;
+        for (int k = 1; k < order.length - 1 && span > 0; k++)
+            crowding[order[k]] += (energy[order[k + 1]] - energy[order[k - 1]]) / span;
+    }
+
+    /* first front of the final population, one plan per objective pair, by ascending energy */
+    private List<ParetoSolution> paretoFront() {
+        List<ParetoSolution> front = new ArrayList<>();
+        for (int i = 0; i < POP_SIZE; i++) {
+            if (rank[i] != 0)
+                continue;
+            final int individual = i;
+            boolean duplicate = front.stream().anyMatch(s ->
+                    s.violations() == violations[individual] && s.energy() == energy[individual]);
+            if (!duplicate)
+                front.add(new ParetoSolution(violations[i], energy[i], makespan[i],
+                        Arrays.copyOfRange(states, i * H, (i + 1) * H),
+                        Arrays.copyOfRange(genes, i * N, (i + 1) * N)));
+        }
+        front.sort(Comparator.comparingDouble(ParetoSolution::energy));
+        return List.copyOf(front);
+    }
+
+    /* lowest-energy plan within the violation limit, else the plan with the fewest violations */
+    private ParetoSolution chooseSolution(List<ParetoSolution> front) {
+        int allowed = (int) Math.floor(slaViolationLimit * N);
+        for (ParetoSolution solution : front) {
+            if (solution.violations() <= allowed)
+                return solution;
+        }
+        return front.get(front.size() - 1);
+    }
+
+    /**
+     * Writes the Pareto front of the last run to {@code csvFile}, one plan per row by ascending
+     * energy, with the host P-states separated by spaces. The file is replaced if it exists.
+     */
+    public void exportParetoFront(Path csvFile) {
+        try (BufferedWriter bw = Files.newBufferedWriter(csvFile)) {
+            bw.write("Violations,ViolationPct,EnergyJ,Makespan,PStates");
+            bw.newLine();
+            for (ParetoSolution solution : lastParetoFront) {
+                StringBuilder pStates = new StringBuilder();
+                for (int state : solution.pStates())
+                    pStates.append(pStates.length() == 0 ? "" : " ").append(state);
+                bw.write(String.format("%d,%.2f,%.1f,%.2f,%s",
+                        solution.violations(), N == 0 ? 0 : 100.0 * solution.violations() / N,
+                        solution.energy(), solution.makespan(), pStates));
+                bw.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write Pareto front CSV", e);
+        }
+    }
+
+    @Override
+    public NSGA2Algorithm setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    @Override
+    public String cacheKey() {
+        return String.format("%s pop=%d generations=%d crossover=%s mutation=%s slaLimit=%s seed=%d",
+                getClass().getName(), POP_SIZE, MAX_GENERATION, CROSSOVER_P, MUTATION_P, slaViolationLimit, seed);
+    }
+
+    /**
+     * Scores the children of each generation in parallel on the given pool; the common pool by
+     * default. Passing {@code null} scores them in order on the calling thread.
+     */
+    public NSGA2Algorithm setEvaluationPool(ForkJoinPool evaluationPool) {
+        this.evaluationPool = evaluationPool;
+        return this;
+    }
+
+    /**
+     * Share of cloudlets allowed to miss their deadline in the plan that {@link #run} simulates:
+     * the lowest-energy plan of the front within it, or the one with the fewest violations.
+     */
+    public NSGA2Algorithm setSlaViolationLimit(double slaViolationLimit) {
+        this.slaViolationLimit = Math.max(0, slaViolationLimit);
+        return this;
+    }
+
+    /** Pareto front of the last run, by ascending energy. */
+    public List<ParetoSolution> getLastParetoFront() {
+        return lastParetoFront;
+    }
+
+    /** Plan of the front that the last run simulated. */
+    public ParetoSolution getLastSimulatedSolution() {
+        return lastSimulatedSolution;
+    }
+}
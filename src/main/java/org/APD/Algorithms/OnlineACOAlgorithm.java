@@ -0,0 +1,218 @@
+package org.APD.Algorithms;
+
+import org.APD.AlgorithmResult;
+import org.APD.DeadlineCloudlet;
+import org.APD.RelevantDataForAlgorithms;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.core.CloudSimTag;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Rolling-horizon variant of {@link ACOAlgorithm}.
+ * <p>
+ * Instead of planning the whole workload before the simulation starts, the cloudlets are
+ * split into arrival frames of {@link #FRAME_LENGTH} seconds. When the simulation clock
+ * reaches a frame, a short colony run plans only the cloudlets arriving in it, against the
+ * backlog the VMs actually have at that moment, and the plan is submitted to the running broker.
+ * Like the offline colony, a frame's arrivals are assumed known at the start of the frame.
+ * </p>
+ * <p>
+ * Cloudlets change from frame to frame, so the trails learned for one frame cannot be reused
+ * as they are. What is carried over is a per-VM trail (the mean of each VM's column at the end
+ * of the frame), used to warm-start the next frame's matrix. The matrix only ever has the
+ * current frame's rows, so memory is bounded by the frame size rather than the workload size.
+ * </p>
+ * <p>
+ * Ants are always scored with the {@link SpaceSharedSurrogate}, because a full simulation of a
+ * frame would ignore the work already queued on the VMs.
+ * </p>
+ */
+public class OnlineACOAlgorithm extends ACOAlgorithm {
+
+    // weight of the carried-over VM trail when a new frame's matrix is initialised, the rest is the neutral level 1.0
+    protected double warmStartWeight = 0.5;
+
+    private double[] arrivals;
+    private int[] frameStart;  // index of the first cloudlet of each frame, plus the list size at the end
+    private int nextFrame;
+    private double[] vmTrail;
+    private double[] plannedFreeAt; // when each VM ends the work planned so far, from the frames' models
+    private SplittableRandom runRandom;
+    private long planningNanos;
+
+    public OnlineACOAlgorithm() {
+        super();
+    }
+
+    public OnlineACOAlgorithm(int numAnts, int iterations, double evaporationRate) {
+        super(numAnts, iterations, evaporationRate);
+    }
+
+    @Override
+    public AlgorithmResult run(RelevantDataForAlgorithms input) {
+        copyGivenDataLocally(input);
+
+        algorithmOnlineACO();
+
+        return new AlgorithmResult(getName(),
+                cloudletList,
+                hostList,
+                vmList,
+                broker0.getCloudletFinishedList(),
+                0);
+    }
+
+    private void algorithmOnlineACO() {
+        simulation = new CloudSimPlus();
+        createDatacenter(simulation, hostList);
+        broker0 = new DatacenterBrokerSimple(simulation);
+        // the broker would shut down between frames when every submitted cloudlet is done
+        broker0.setShutdownWhenIdle(false);
+
+        // the submission delays are rewritten relative to the planning time, keep the absolute arrivals
+        arrivals = new double[cloudletList.size()];
+        for (int i = 0; i < arrivals.length; i++)
+            arrivals[i] = cloudletList.get(i).getSubmissionDelay();
+        splitIntoFrames();
+
+        vmTrail = new double[vmList.size()];
+        Arrays.fill(vmTrail, 1.0);
+        plannedFreeAt = new double[vmList.size()];
+        runRandom = new SplittableRandom(seed);
+        nextFrame = 0;
+        planningNanos = 0;
+        // both re-score ants with a simulation of the whole cloudlet list, which a frame's ants do not cover
+        fullSimulationTopK = 0;
+        validateSurrogate = false;
+
+        broker0.submitVmList(vmList);
+        simulation.addOnSimulationStartListener(info -> planDueFrames(info.getTime()));
+        simulation.addOnClockTickListener(this::onClockTick);
+        simulation.start();
+    }
+
+    /* the cloudlet list is in arrival order, so each frame is a contiguous range */
+    private void splitIntoFrames() {
+        int frames = arrivals.length == 0 ? 0 : frameOf(arrivals[arrivals.length - 1]) + 1;
+        frameStart = new int[frames + 1];
+        int i = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            frameStart[frame] = i;
+            while (i < arrivals.length && frameOf(arrivals[i]) <= frame)
+                i++;
+        }
+        frameStart[frames] = arrivals.length;
+    }
+
+    private static int frameOf(double arrival) {
+        return (int) Math.floor(arrival / FRAME_LENGTH);
+    }
+
+    private void onClockTick(EventInfo info) {
+        planDueFrames(info.getTime());
+    }
+
+    private void planDueFrames(double now) {
+        int frames = frameStart.length - 1;
+        while (nextFrame < frames && now >= nextFrame * FRAME_LENGTH) {
+            planFrame(nextFrame++, now);
+        }
+
+        if (nextFrame < frames) {
+            // an event at the next frame boundary, so the clock reaches it even if nothing else happens then
+            simulation.send(broker0, broker0, nextFrame * FRAME_LENGTH - now, CloudSimTag.NONE, null);
+        } else {
+            broker0.setShutdownWhenIdle(true);
+        }
+    }
+
+    private void planFrame(int frame, double now) {
+        int from = frameStart[frame], to = frameStart[frame + 1];
+        if (from == to)
+            return;
+
+        long start = System.nanoTime();
+        List<DeadlineCloudlet> arriving = cloudletList.subList(from, to);
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(arriving, vmList, currentBacklog(now));
+
+        PheromoneMatrix pheromoneMatrix = new PheromoneMatrix(arriving.size(), vmList.size(), 1.0);
+        for (int c = 0; c < arriving.size(); c++) {
+            for (int vm = 0; vm < vmList.size(); vm++)
+                pheromoneMatrix.set(c, vm, (1 - warmStartWeight) + warmStartWeight * vmTrail[vm]);
+        }
+
+        Ant plan = searchColony(model, pheromoneMatrix, true, runRandom);
+        planningNanos += System.nanoTime() - start;
+
+        learnVmTrail(pheromoneMatrix);
+        System.arraycopy(plan.vmFreeAt, 0, plannedFreeAt, 0, plannedFreeAt.length);
+
+        int[] assignment = plan.getVmAssignment();
+        for (int i = 0; i < arriving.size(); i++) {
+            DeadlineCloudlet cl = arriving.get(i);
+            cl.setVm(vmList.get(assignment[i]));
+            cl.setSubmissionDelay(Math.max(0, arrivals[from + i] - now));
+        }
+        broker0.submitCloudletList(arriving);
+    }
+
+    /**
+     * When each VM will be free, from what it is running and queueing now. Cloudlets planned
+     * earlier that have not reached the VM yet are covered by the previous frames' plans.
+     */
+    private double[] currentBacklog(double now) {
+        double[] readyAt = new double[vmList.size()];
+        for (int j = 0; j < readyAt.length; j++) {
+            Vm vm = vmList.get(j);
+            double remaining = 0;
+            for (CloudletExecution ce : vm.getCloudletScheduler().getCloudletExecList())
+                remaining += ce.getRemainingCloudletLength();
+            for (CloudletExecution ce : vm.getCloudletScheduler().getCloudletWaitingList())
+                remaining += ce.getRemainingCloudletLength();
+
+            readyAt[j] = Math.max(now + remaining / vm.getMips(), plannedFreeAt[j]);
+        }
+        return readyAt;
+    }
+
+    /* each VM keeps the mean trail its column ended the frame with */
+    private void learnVmTrail(PheromoneMatrix pheromoneMatrix) {
+        int rows = pheromoneMatrix.cloudlets();
+        for (int vm = 0; vm < vmTrail.length; vm++) {
+            double sum = 0;
+            for (int c = 0; c < rows; c++)
+                sum += pheromoneMatrix.get(c, vm);
+            vmTrail[vm] = sum / rows;
+        }
+    }
+
+    /** How much of a new frame's initial trail comes from the previous frames, between 0 (cold start) and 1. */
+    public OnlineACOAlgorithm setWarmStartWeight(double warmStartWeight) {
+        if (warmStartWeight < 0 || warmStartWeight > 1)
+            throw new IllegalArgumentException("Warm start weight must be in [0, 1]");
+        this.warmStartWeight = warmStartWeight;
+        return this;
+    }
+
+    @Override
+    public String cacheKey() {
+        String key = super.cacheKey();
+        return key == null ? null : key + " warmStartWeight=" + warmStartWeight;
+    }
+
+    public long getPlanningNanos() {
+        return planningNanos;
+    }
+
+    @Override
+    public String getName() {
+        return "Online ACO";
+    }
+}
@@ -1,185 +1,248 @@
-///*  ──────────────────────────────────────────────────────────────────────
-//    PSOAlgorithm.java – Discrete-PSO version of the GA/ACO scheduler
-//    ----------------------------------------------------------------------
-//    Copyright 2025  Ionescu Serban-Mihai
-//   ────────────────────────────────────────────────────────────────────── */
-//package org.APD.Algorithms;
-//
-//import ch.qos.logback.classic.Level;
-//import org.APD.AlgorithmResult;
-//import org.APD.DeadlineCloudlet;
-//import org.APD.RelevantDataForAlgorithms;
-//import org.cloudsimplus.brokers.DatacenterBroker;
-//import org.cloudsimplus.brokers.DatacenterBrokerSimple;
-//import org.cloudsimplus.core.CloudSimPlus;
-//import org.cloudsimplus.datacenters.Datacenter;
-//import org.cloudsimplus.hosts.Host;
-//import org.cloudsimplus.util.Log;
-//import org.cloudsimplus.vms.Vm;
-//
-//import java.util.*;
-//
-//import static java.util.stream.Collectors.toList;
-//
-//public class PSOAlgorithm extends BaseSchedulingAlgorithm {
-//
-//    /* ───────────────────────── 1.  PSO hyper-parameters ───────────────────────── */
-//    private static final int SWARM_SIZE   = 30;
-//    private static final int MAX_ITER     = 50;
-//    private static final double W         = 0.6;     // inertia
-//    private static final double C1        = 1.5;     // cognitive
-//    private static final double C2        = 1.5;     // social
-//
-//    /* ───────────────────────── 2.  Book-keeping fields ───────────────────────── */
-//    private final Random rng = new Random();
-//
-//    private final List<Vm> vmList;                       // reference list (size = M)
-//    private final List<DeadlineCloudlet> cloudlets;      // reference cloudlets (size = N)
-//    private final int[] submissionOrder;                 // idx[] sorted by arrival
-//
-//    /* convenience */
-//    private final int N;        // number of cloudlets
-//    private final int M;        // number of VMs
-//
-//    /* ───────────────────────── 3.  Ctor expects original lists ────────────────── */
-//    public PSOAlgorithm(List<Vm> vmList, List<DeadlineCloudlet> clList) {
-//        this.vmList   = vmList;
-//        this.cloudlets = clList;
-//        this.N = clList.size();
-//        this.M = vmList.size();
-//
-//        /* sort once by arrival to use inside fitness() */
-//        this.submissionOrder = clList.stream()
-//                .sorted(Comparator.comparingDouble(DeadlineCloudlet::getSubmissionDelay))
-//                .mapToInt(clList::indexOf)
-//                .toArray();
-//    }
-//
-//    /* ───────────────────────── 4.  Run entry point ───────────────────────────── */
-//    @Override
-//    public AlgorithmResult run(List<Host> HOSTS,
-//                               List<Vm>   vmTemplate,
-//                               List<DeadlineCloudlet> clTemplate,
-//                               RelevantDataForAlgorithms data) {
-//
-//        Log.setLevel(Level.OFF);
-//
-//        /* ---------- 4.1 build initial swarm ------------------------------------ */
-//        List<Particle> swarm = new ArrayList<>(SWARM_SIZE);
-//        for (int i = 0; i < SWARM_SIZE; i++)
-//            swarm.add(new Particle(randomChromosome(), new double[N]));
-//
-//        Particle gBest = null;
-//        double gBestFit = Double.NEGATIVE_INFINITY;
-//
-//        /* ---------- 4.2 iterate ----------------------------------------------- */
-//        for (int iter = 0; iter < MAX_ITER; iter++) {
-//
-//            /* evaluate every particle */
-//            for (Particle p : swarm) {
-//                double fit = fitness(p.pos);
-//                if (fit > p.bestFit) {                        // update personal best
-//                    p.bestFit = fit;
-//                    p.pBest   = p.pos.clone();
-//                }
-//                if (fit > gBestFit) {                         // update global best
-//                    gBestFit = fit;
-//                    gBest    = new Particle(p.pos.clone(), p.vel.clone());
-//                    gBest.bestFit = fit;
-//                    gBest.pBest   = p.pBest.clone();
-//                }
-//            }
-//
-//            /* update velocity & position */
-//            for (Particle p : swarm) {
-//                for (int g = 0; g < N; g++) {
-//                    double r1 = rng.nextDouble();
-//                    double r2 = rng.nextDouble();
-//
-//                    /* classic PSO equation in discrete form ------------------- */
-//                    p.vel[g] = W  * p.vel[g]
-//                            + C1 * r1 * (p.pBest[g] - p.pos[g])
-//                            + C2 * r2 * (gBest.pos[g] - p.pos[g]);
-//
-//                    /* position update: round and wrap into [0 … M-1] ---------- */
-//                    int newGene = (int)Math.round(p.pos[g] + p.vel[g]);
-//                    p.pos[g] = ((newGene % M) + M) % M;     // positive modulo
-//                }
-//            }
-//        }
-//
-//        /* ---------- 4.3  Build real CloudSim run using gBest ------------------ */
-//        CloudSimPlus sim = new CloudSimPlus();
-//        Datacenter   dc  = createDatacenter(sim, new ArrayList<>(HOSTS));
-//        DatacenterBroker broker = new DatacenterBrokerSimple(sim);
-//
-//        /* deep-copy templates */
-//        List<Vm> vms = vmTemplate.stream().map(Vm::clone).collect(toList());
-//        List<DeadlineCloudlet> cls = clTemplate.stream()
-//                .map(DeadlineCloudlet::clone)
-//                .collect(toList());
-//
-//        broker.submitVmList(vms);
-//
-//        /* bind each cloudlet to VM according to best position */
-//        for (int i = 0; i < cls.size(); i++) {
-//            cls.get(i).setVm( vms.get(gBest.pos[i]) );
-//            broker.submitCloudlet(cls.get(i));
-//        }
-//
-//        sim.start();
-//
-//        double makespan = broker.getCloudletFinishedList()
-//                .stream()
-//                .mapToDouble(c -> c.getFinishTime())
-//                .max()
-//                .orElse(0);
-//
-//        return new AlgorithmResult("PSO", makespan,
-//                /*energy*/0,
-//                sim.getLastCloudletProcessingTime());
-//    }
-//
-//    /* ───────────────────────── 5.  Helper: chromosome generator ─────────────── */
-//    private int[] randomChromosome() {
-//        int[] genes = new int[N];
-//        for (int i = 0; i < N; i++)
-//            genes[i] = rng.nextInt(M);
-//        return genes;
-//    }
-//
-//    /* ───────────────────────── 6.  Fitness (higher = better) ────────────────── */
-//    private double fitness(int[] chrom) {
-//        double[] lastFin = new double[M];             // timeline per VM
-//
-//        for (int idx : submissionOrder) {
-//            DeadlineCloudlet cl = cloudlets.get(idx);
-//            int vmId = chrom[idx];
-//
-//            double arrival  = cl.getSubmissionDelay();
-//            double execSec  = cl.getLength();         // you stored execTimeSec in length
-//
-//            double start = Math.max(arrival, lastFin[vmId]);
-//            lastFin[vmId] = start + execSec;
-//        }
-//        /* we minimise makespan → flip sign so bigger = better */
-//        double makespan = Arrays.stream(lastFin).max().orElse(0);
-//        return -makespan;
-//    }
-//
-//
-//    /* ───────────────────────── 7.  Inner Particle class ─────────────────────── */
-//    private static class Particle {
-//        int[] pos;            // current chromosome (N genes)
-//        double[] vel;         // real velocity per gene
-//        int[] pBest;          // personal-best chromosome
-//        double bestFit;       // fitness of personal best
-//
-//        Particle(int[] pos, double[] vel) {
-//            this.pos = pos;
-//            this.vel = vel;
-//            this.pBest = pos.clone();
-//            this.bestFit = Double.NEGATIVE_INFINITY;
-//        }
-//    }
-//}
+package org.APD.Algorithms;
+/*  ──────────────────────────────────────────────────────────────────────
+    PSOAlgorithm.java – Discrete-PSO version of the GA/ACO scheduler
+    ----------------------------------------------------------------------
+    Copyright 2025  Ionescu Serban-Mihai
+   ────────────────────────────────────────────────────────────────────── */
+
+import ch.qos.logback.classic.Level;
+import org.APD.AlgorithmResult;
+import org.APD.RelevantDataForAlgorithms;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.util.Log;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class PSOAlgorithm extends BaseSchedulingAlgorithm {
+
+    /* ───────────────────────── 1.  PSO hyper-parameters ───────────────────────── */
+    private static final int SWARM_SIZE   = 30;
+    private static final int MAX_ITER     = 50;
+    private static final double W         = 0.6;     // inertia
+    private static final double C1        = 1.5;     // cognitive
+    private static final double C2        = 1.5;     // social
+
+    /* ───────────────────────── 2.  Book-keeping fields ───────────────────────── */
+    // every particle draws from its own stream split from this seed, so parallel runs are repeatable
+    private long seed = ThreadLocalRandom.current().nextLong();
+    // moves and scores the particles in parallel; null runs them in order on the calling thread
+    private ForkJoinPool swarmPool = ForkJoinPool.commonPool();
+    // score the whole swarm in one pass with a BatchScorer once every particle has moved
+    private boolean batchScoring = false;
+    private double lastEvaluationsPerSecond;
+
+    /* swarm in struct-of-arrays form, particle p at [p * N, (p + 1) * N) */
+    private int N;
+    private int M;
+    private int[] position;
+    private double[] velocity;
+    private int[] personalBest;
+    private double[] personalBestFitness;
+    private int[] globalBest;
+    private double globalBestFitness;
+
+    public static void main(String[] args) {
+        Log.setLevel(Level.OFF);
+        new PSOAlgorithm();
+    }
+
+    public PSOAlgorithm() {
+    }
+
+    /* ───────────────────────── 3.  Run entry point ───────────────────────────── */
+    @Override
+    public AlgorithmResult run(RelevantDataForAlgorithms relevantData) {
+
+        copyGivenDataLocally(relevantData);
+
+        algorithmPSO();
+
+        return new AlgorithmResult("PSO", cloudletList, hostList, vmList, broker0.getCloudletFinishedList(), 0);
+    }
+
+    @Override
+    public String getName() {
+        return "PSO";
+    }
+
+    private void algorithmPSO() {
+
+        simulation = new CloudSimPlus();
+        Datacenter datacenter0 = createDatacenter(simulation, hostList);
+        broker0 = new DatacenterBrokerSimple(simulation);
+
+        // primitive copy of the workload, every position is scored against it
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(cloudletList, vmList);
+        long start = System.nanoTime();
+
+        /* ---------- 3.1 build initial swarm ------------------------------------ */
+        N = model.cloudletCount();
+        M = model.vmCount();
+        position = new int[SWARM_SIZE * N];
+        velocity = new double[SWARM_SIZE * N];
+        personalBest = new int[SWARM_SIZE * N];
+        personalBestFitness = new double[SWARM_SIZE];
+        globalBest = new int[N];
+        globalBestFitness = Double.NEGATIVE_INFINITY;
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+        SplittableRandom[] rng = new SplittableRandom[SWARM_SIZE];
+        SpaceSharedSurrogate[] scratch = new SpaceSharedSurrogate[SWARM_SIZE];
+        for (int p = 0; p < SWARM_SIZE; p++) {
+            rng[p] = seeds.split();
+            scratch[p] = model.withOwnScratch();
+            for (int g = 0; g < N; g++)
+                position[p * N + g] = rng[p].nextInt(M);
+            personalBestFitness[p] = Double.NEGATIVE_INFINITY;
+        }
+        BatchScorer batch = batchScoring ? new BatchScorer(model, SWARM_SIZE) : null;
+        int[] batchGenes = batchScoring ? new int[N * SWARM_SIZE] : null;
+
+        /* ---------- 3.2 iterate ----------------------------------------------- */
+        List<Runnable> tasks = new ArrayList<>(SWARM_SIZE);
+        for (int iter = 0; iter < MAX_ITER; iter++) {
+            boolean move = iter > 0; // the random start is scored as is
+            tasks.clear();
+            for (int p = 0; p < SWARM_SIZE; p++) {
+                final int particle = p;
+                tasks.add(() -> {
+                    if (move)
+                        moveParticle(particle, rng[particle]);
+                    if (batch == null)
+                        scoreParticle(particle, scratch[particle]);
+                });
+            }
+            runAll(tasks);
+            if (batch != null)
+                scoreSwarm(batch, batchGenes);
+
+            /* global best, on the calling thread once every particle is done */
+            int best = 0;
+            for (int p = 1; p < SWARM_SIZE; p++) {
+                if (personalBestFitness[p] > personalBestFitness[best])
+                    best = p;
+            }
+            if (personalBestFitness[best] > globalBestFitness) {
+                globalBestFitness = personalBestFitness[best];
+                System.arraycopy(personalBest, best * N, globalBest, 0, N);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        lastEvaluationsPerSecond = (double) SWARM_SIZE * MAX_ITER / seconds;
+
+        /* ---------- 3.3 build real CloudSim run using gBest ------------------- */
+        broker0.submitVmList(vmList);
+
+        for (int i = 0; i < cloudletList.size(); i++) {
+            Vm chosenVm = vmList.get(globalBest[i]);
+            cloudletList.get(i).setVm(chosenVm);
+            broker0.submitCloudlet(cloudletList.get(i));
+        }
+
+        simulation.start();
+    }
+
+    /* classic PSO equation in discrete form; the global best is only read while particles move */
+    private void moveParticle(int particle, SplittableRandom rng) {
+        int base = particle * N;
+        for (int g = 0; g < N; g++) {
+            double r1 = rng.nextDouble();
+            double r2 = rng.nextDouble();
+            int pos = position[base + g];
+
+            velocity[base + g] = W  * velocity[base + g]
+                    + C1 * r1 * (personalBest[base + g] - pos)
+                    + C2 * r2 * (globalBest[g] - pos);
+
+            /* position update: round and wrap into [0 … M-1] */
+            int newGene = (int) Math.round(pos + velocity[base + g]);
+            position[base + g] = ((newGene % M) + M) % M;     // positive modulo
+        }
+    }
+
+    /* scores the particle's position and copies it over its personal best if it improved */
+    private void scoreParticle(int particle, SpaceSharedSurrogate model) {
+        int base = particle * N;
+        int nrOfViolations = model.evaluate(position, base);
+        updatePersonalBest(particle, fitness(nrOfViolations, model.getLastMakespan()));
+    }
+
+    /* scores every particle's position in one batch on the calling thread */
+    private void scoreSwarm(BatchScorer batch, int[] batchGenes) {
+        BatchScorer.transpose(position, N, 0, SWARM_SIZE, batchGenes);
+        batch.score(batchGenes, SWARM_SIZE);
+        for (int p = 0; p < SWARM_SIZE; p++)
+            updatePersonalBest(p, fitness(batch.violations(p), batch.makespan(p)));
+    }
+
+    private void updatePersonalBest(int particle, double fitness) {
+        if (fitness > personalBestFitness[particle]) {
+            personalBestFitness[particle] = fitness;
+            System.arraycopy(position, particle * N, personalBest, particle * N, N);
+        }
+    }
+
+    /* same fitness as GAAlgorithm – bigger is better */
+    private double fitness(int nrOfViolations, double makespan) {
+        return (double) 1 / (1 + nrOfViolations) + 0.01 * (((double) (CLOUDLET_LENGTH_MAX * (TOTAL_CLOUDLETS)) / 1000) / makespan);
+    }
+
+    /* runs the tasks on the swarm pool and waits for all of them, or runs them in order if there is no pool */
+    private void runAll(List<Runnable> tasks) {
+        if (swarmPool == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+
+        List<ForkJoinTask<?>> submitted = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks)
+            submitted.add(swarmPool.submit(task));
+        for (ForkJoinTask<?> task : submitted)
+            task.join();
+    }
+
+    /**
+     * Moves and scores the particles of each iteration in parallel on the given pool; the common
+     * pool by default. The global best is updated on the calling thread between iterations.
+     * Passing {@code null} runs the swarm sequentially.
+     */
+    public PSOAlgorithm setSwarmPool(ForkJoinPool swarmPool) {
+        this.swarmPool = swarmPool;
+        return this;
+    }
+
+    /**
+     * Scores the swarm of each iteration in one {@link BatchScorer} pass on the calling thread,
+     * after the particles have moved, instead of particle by particle.
+     */
+    public PSOAlgorithm setBatchScoring(boolean batchScoring) {
+        this.batchScoring = batchScoring;
+        return this;
+    }
+
+    @Override
+    public PSOAlgorithm setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    @Override
+    public String cacheKey() {
+        return String.format("%s swarm=%d iterations=%d w=%s c1=%s c2=%s batch=%s seed=%d",
+                getClass().getName(), SWARM_SIZE, MAX_ITER, W, C1, C2, batchScoring, seed);
+    }
+
+    /** Positions scored per second by the last run. */
+    public double getLastEvaluationsPerSecond() {
+        return lastEvaluationsPerSecond;
+    }
+}
@@ -0,0 +1,193 @@
+package org.APD.Algorithms;
+
+import org.APD.PowerModels.PowerModelPStateProcessor;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primitive view of the hosts' P-states, to score a per-host P-state vector without a simulation.
+ * <p>
+ * VM {@code j} is taken to run on host {@code j mod H}, which is where CloudSim places the
+ * VMs of {@link AlgorithmBaseFunctionalities#createVms()} on the hosts of
+ * {@link AlgorithmBaseFunctionalities#createHostsInitialDistribution()}. At state {@code s}
+ * a VM runs at its MIPS scaled by the state's processing fraction over the current one's,
+ * as {@link AlgorithmBaseFunctionalities#modifyHostAndVmToHaveOneHostWithLowerPower} does.
+ * </p>
+ * <p>
+ * Power follows {@link PowerModelPStateProcessor}: a host at state {@code s} draws the state's
+ * static power plus, when {@code s} is not the top state, the gap to the next state times its
+ * utilisation.
+ * </p>
+ */
+public class PStateModel {
+
+    private final int hosts;
+    private final int[] vmHost;
+    private final double[] vmMipsAtFullSpeed;
+    private final int[] vmsOnHost;
+    private final double[][] fraction; // [host][state], ascending
+    private final double[][] power;    // [host][state]
+    private final int[] currentState;
+
+    public PStateModel(List<Host> hostList, List<Vm> vmList) {
+        hosts = hostList.size();
+        fraction = new double[hosts][];
+        power = new double[hosts][];
+        currentState = new int[hosts];
+        for (int h = 0; h < hosts; h++) {
+            PowerModelPStateProcessor model = (PowerModelPStateProcessor) hostList.get(h).getPowerModel();
+            PowerModelPStateProcessor.PerformanceState[] states = model.getPossiblePerformanceStates();
+            fraction[h] = new double[states.length];
+            power[h] = new double[states.length];
+            for (int s = 0; s < states.length; s++) {
+                fraction[h][s] = states[s].processingFraction();
+                power[h][s] = states[s].powerConsumption();
+            }
+            currentState[h] = model.getCurrentPerformanceState();
+        }
+
+        vmHost = new int[vmList.size()];
+        vmMipsAtFullSpeed = new double[vmList.size()];
+        vmsOnHost = new int[hosts];
+        for (int j = 0; j < vmList.size(); j++) {
+            int h = j % hosts;
+            vmHost[j] = h;
+            vmMipsAtFullSpeed[j] = vmList.get(j).getMips() / fraction[h][currentState[h]];
+            vmsOnHost[h]++;
+        }
+    }
+
+    public int hostCount() {
+        return hosts;
+    }
+
+    public int vmCount() {
+        return vmHost.length;
+    }
+
+    public int hostOf(int vm) {
+        return vmHost[vm];
+    }
+
+    public int stateCount(int host) {
+        return fraction[host].length;
+    }
+
+    /** The hosts' states as given; a copy. */
+    public int[] currentStates() {
+        return currentState.clone();
+    }
+
+    /** Every host at its fastest state. */
+    public int[] topStates() {
+        int[] states = new int[hosts];
+        for (int h = 0; h < hosts; h++)
+            states[h] = stateCount(h) - 1;
+        return states;
+    }
+
+    public double vmMips(int vm, int state) {
+        return vmMipsAtFullSpeed[vm] * fraction[vmHost[vm]][state];
+    }
+
+    /** Writes every VM's MIPS under the per-host {@code states} into {@code dest}. */
+    public void vmMips(int[] states, double[] dest) {
+        vmMips(states, 0, dest);
+    }
+
+    /** Same as {@link #vmMips(int[], double[])} for states stored at {@code states[offset .. offset + H)}. */
+    public void vmMips(int[] states, int offset, double[] dest) {
+        for (int j = 0; j < vmHost.length; j++)
+            dest[j] = vmMipsAtFullSpeed[j] * fraction[vmHost[j]][states[offset + vmHost[j]]];
+    }
+
+    /** Static power of {@code host} at {@code state}, in W. */
+    public double staticPower(int host, int state) {
+        return power[host][state];
+    }
+
+    /** Extra power of {@code host} at {@code state} when fully used, in W; zero at the top state. */
+    public double dynamicPower(int host, int state) {
+        return state < power[host].length - 1 ? power[host][state + 1] - power[host][state] : 0;
+    }
+
+    /**
+     * Energy in J drawn by all hosts over {@code [0, horizon]} with the per-host {@code states},
+     * given each VM's busy time in that window.
+     */
+    public double energy(int[] states, double[] vmBusy, double horizon) {
+        return energy(states, 0, vmBusy, horizon);
+    }
+
+    /** Same as {@link #energy(int[], double[], double)} for states stored at {@code states[offset .. offset + H)}. */
+    public double energy(int[] states, int offset, double[] vmBusy, double horizon) {
+        if (horizon <= 0)
+            return 0;
+        double[] busyOnHost = new double[hosts];
+        for (int j = 0; j < vmHost.length; j++)
+            busyOnHost[vmHost[j]] += vmBusy[j];
+        double joules = 0;
+        for (int h = 0; h < hosts; h++) {
+            double utilization = vmsOnHost[h] == 0 ? 0 : Math.min(1, busyOnHost[h] / (vmsOnHost[h] * horizon));
+            int state = states[offset + h];
+            joules += (staticPower(h, state) + dynamicPower(h, state) * utilization) * horizon;
+        }
+        return joules;
+    }
+
+    /**
+     * Host and VM lists with every host moved to its state in {@code states}. Hosts that change are
+     * rebuilt with scaled MIPS and a copy of their power model, as in
+     * {@link AlgorithmBaseFunctionalities#modifyHostAndVmToHaveOneHostWithLowerPower}; the others are kept.
+     * A host moved down is scaled one state at a time, truncating to whole MIPS at every step as that
+     * method does, so it ends with the same MIPS as when it was lowered step by step.
+     */
+    public AlgorithmBaseFunctionalities.HostVmPair apply(AlgorithmBaseFunctionalities factory,
+                                                        List<Host> hostList, List<Vm> vmList, int[] states) {
+        List<Host> newHosts = new ArrayList<>(hosts);
+        for (int h = 0; h < hosts; h++) {
+            Host host = hostList.get(h);
+            if (states[h] == currentState[h]) {
+                newHosts.add(host);
+                continue;
+            }
+            PowerModelPStateProcessor powerModel = new PowerModelPStateProcessor((PowerModelPStateProcessor) host.getPowerModel());
+            powerModel.setCurrentPerformanceState(states[h]);
+            Host moved = factory.createPowerHost((int) host.getId(), (int) scaled(host.getMips(), h, states[h]), 1);
+            moved.setPowerModel(powerModel);
+            newHosts.add(moved);
+        }
+
+        List<Vm> newVms = new ArrayList<>(vmList.size());
+        for (int j = 0; j < vmList.size(); j++) {
+            Vm vm = vmList.get(j);
+            int h = vmHost[j];
+            if (states[h] == currentState[h]) {
+                newVms.add(vm);
+                continue;
+            }
+            Vm moved = new VmSimple(vm.getId(), (int) scaled(vm.getMips(), h, states[h]), vm.getPesNumber());
+            moved.setRam(vm.getRam().getCapacity())
+                    .setBw(vm.getBw().getCapacity())
+                    .setSize(vm.getStorage().getCapacity())
+                    .setCloudletScheduler(new CloudletSchedulerSpaceShared());
+            moved.enableUtilizationStats();
+            newVms.add(moved);
+        }
+        return new AlgorithmBaseFunctionalities.HostVmPair(newHosts, newVms);
+    }
+
+    /* MIPS at the current state of {@code host} moved to {@code state}, truncated after every step down */
+    private double scaled(double mips, int host, int state) {
+        if (state > currentState[host])
+            return mips / fraction[host][currentState[host]] * fraction[host][state];
+        for (int s = currentState[host]; s > state; s--)
+            mips = (int) (mips / fraction[host][s] * fraction[host][s - 1]);
+        return mips;
+    }
+}
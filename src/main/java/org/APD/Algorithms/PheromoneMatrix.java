@@ -0,0 +1,127 @@
+package org.APD.Algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Cloudlet × VM pheromone trails stored row-major in one contiguous {@code double[]}.
+ * <p>
+ * Row {@code c} (all VMs of cloudlet {@code c}) is the slice
+ * {@code [c * vms, (c + 1) * vms)}, so the per-cloudlet kernels below walk a single
+ * unit-stride range instead of chasing one row object per cloudlet.
+ * The loops are kept branch-light and free of calls so the JIT can vectorise them.
+ * </p>
+ */
+public class PheromoneMatrix {
+
+    private final int cloudlets;
+    private final int vms;
+    private final double[] trails;
+
+    public PheromoneMatrix(int cloudlets, int vms, double initialLevel) {
+        long size = (long) cloudlets * vms;
+        if (size > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Pheromone matrix too large: " + cloudlets + " x " + vms);
+
+        this.cloudlets = cloudlets;
+        this.vms = vms;
+        this.trails = new double[(int) size];
+        Arrays.fill(trails, initialLevel);
+    }
+
+    public int cloudlets() {
+        return cloudlets;
+    }
+
+    public int vms() {
+        return vms;
+    }
+
+    public double get(int cloudlet, int vm) {
+        return trails[cloudlet * vms + vm];
+    }
+
+    public void set(int cloudlet, int vm, double level) {
+        trails[cloudlet * vms + vm] = level;
+    }
+
+    public void fill(double level) {
+        Arrays.fill(trails, level);
+    }
+
+    /** Adds {@code amount} to one trail, capping the result at {@code maxLevel}. */
+    public void deposit(int cloudlet, int vm, double amount, double maxLevel) {
+        int idx = cloudlet * vms + vm;
+        trails[idx] = Math.min(trails[idx] + amount, maxLevel);
+    }
+
+    /** Multiplies every trail by {@code 1 - rate} and raises anything below {@code minLevel} back to it. */
+    public void evaporate(double rate, double minLevel) {
+        double keep = 1 - rate;
+        for (int i = 0; i < trails.length; i++) {
+            trails[i] = Math.max(trails[i] * keep, minLevel);
+        }
+    }
+
+    /** Like {@link #evaporate(double, double)}, also lowering anything above {@code maxLevel} to it. */
+    public void evaporate(double rate, double minLevel, double maxLevel) {
+        double keep = 1 - rate;
+        for (int i = 0; i < trails.length; i++) {
+            trails[i] = Math.min(Math.max(trails[i] * keep, minLevel), maxLevel);
+        }
+    }
+
+    /**
+     * Average λ-branching factor: the number of VMs per cloudlet whose trail is at least
+     * {@code minLevel + lambda * (maxLevel - minLevel)}, averaged over all cloudlets.
+     * It tends to 1 when the colony has converged on a single VM per cloudlet.
+     */
+    public double averageBranchingFactor(double minLevel, double maxLevel, double lambda) {
+        double cut = minLevel + lambda * (maxLevel - minLevel);
+        long branches = 0;
+        for (int i = 0; i < trails.length; i++) {
+            if (trails[i] >= cut) branches++;
+        }
+        return cloudlets == 0 ? 0 : (double) branches / cloudlets;
+    }
+
+    /**
+     * Computes {@code pheromone^alpha * heuristic^beta} for every VM of the cloudlet and
+     * writes the running sum into {@code cumulative}, ready for {@link #sample}.
+     *
+     * @return the total weight (the last prefix sum)
+     */
+    public double cumulativeWeights(int cloudlet, double[] heuristic, int alpha, int beta, double[] cumulative) {
+        int row = cloudlet * vms;
+        double total = 0.0;
+        for (int vm = 0; vm < vms; vm++) {
+            total += intPow(trails[row + vm], alpha) * intPow(heuristic[vm], beta);
+            cumulative[vm] = total;
+        }
+        return total;
+    }
+
+    /**
+     * Roulette-wheel selection over prefix sums: returns the first index whose
+     * cumulative weight is {@code >= target}, or the last index if none is.
+     */
+    public static int sample(double[] cumulative, int count, double target) {
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] >= target) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /* the ACO exponents are small integers, so avoid Math.pow in the inner loops */
+    static double intPow(double base, int exponent) {
+        return switch (exponent) {
+            case 0 -> 1.0;
+            case 1 -> base;
+            case 2 -> base * base;
+            case 3 -> base * base * base;
+            default -> Math.pow(base, exponent);
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package org.APD.Algorithms;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Final ACO trails saved per cloudlet class, so a later run of the same scenario can start from them.
+ * <p>
+ * Cloudlet ids and counts change from run to run, so the trails are not stored per cloudlet.
+ * Each cloudlet is put in a class by its length and by how tight its deadline is, and the
+ * snapshot keeps the mean trail of every (class, VM) pair. Loading gives every cloudlet of
+ * a class that row.
+ * </p>
+ * <p>
+ * Snapshots are keyed by a scenario signature: the VM count, the MIPS of every VM and the
+ * histogram of cloudlet classes in 10% steps. The file is a small header followed by
+ * {@code classes × vms} doubles, and is read back through a memory-mapped buffer.
+ * </p>
+ */
+public class PheromoneSnapshot {
+
+    private static final int MAGIC = 0x50484552; // "PHER"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+
+    static final int LENGTH_CLASSES = 8;
+    static final int SLACK_CLASSES = 4;
+    static final int CLASSES = LENGTH_CLASSES * SLACK_CLASSES;
+
+    private final long signature;
+    private final int vms;
+    private final double[] levels; // row-major [class][vm]
+
+    private PheromoneSnapshot(long signature, int vms, double[] levels) {
+        this.signature = signature;
+        this.vms = vms;
+        this.levels = levels;
+    }
+
+    /** Averages the trails of every cloudlet class; classes without cloudlets keep {@code defaultLevel}. */
+    public static PheromoneSnapshot capture(PheromoneMatrix pheromoneMatrix, SpaceSharedSurrogate model, double defaultLevel) {
+        int vms = model.vmCount();
+        double[] levels = new double[CLASSES * vms];
+        int[] members = new int[CLASSES];
+        double meanMips = meanMips(model);
+
+        for (int c = 0; c < model.cloudletCount(); c++) {
+            int cls = classOf(model, c, meanMips);
+            members[cls]++;
+            for (int vm = 0; vm < vms; vm++)
+                levels[cls * vms + vm] += pheromoneMatrix.get(c, vm);
+        }
+        for (int cls = 0; cls < CLASSES; cls++) {
+            for (int vm = 0; vm < vms; vm++)
+                levels[cls * vms + vm] = members[cls] == 0 ? defaultLevel : levels[cls * vms + vm] / members[cls];
+        }
+        return new PheromoneSnapshot(signature(model), vms, levels);
+    }
+
+    /** Sets every cloudlet's row to the saved trails of its class, clamped to {@code [minLevel, maxLevel]}. */
+    public void applyTo(PheromoneMatrix pheromoneMatrix, SpaceSharedSurrogate model, double minLevel, double maxLevel) {
+        double meanMips = meanMips(model);
+        for (int c = 0; c < model.cloudletCount(); c++) {
+            int row = classOf(model, c, meanMips) * vms;
+            for (int vm = 0; vm < vms; vm++)
+                pheromoneMatrix.set(c, vm, Math.min(Math.max(levels[row + vm], minLevel), maxLevel));
+        }
+    }
+
+    /**
+     * Writes the snapshot to {@code directory/aco-<signature>.pher}. The file is written next to
+     * its final name and moved into place, so concurrent runs never read a partial snapshot.
+     */
+    public Path save(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path target = fileFor(directory, signature);
+        Path tmp = Files.createTempFile(directory, "aco-", ".tmp");
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + levels.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(signature).putInt(CLASSES).putInt(vms);
+        buffer.asDoubleBuffer().put(levels);
+        buffer.position(buffer.limit());
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    /**
+     * Loads the snapshot saved for the model's scenario.
+     *
+     * @return the snapshot, or {@code null} if there is none or it does not match the scenario
+     */
+    public static PheromoneSnapshot load(Path directory, SpaceSharedSurrogate model) throws IOException {
+        long signature = signature(model);
+        Path file = fileFor(directory, signature);
+        if (!Files.exists(file))
+            return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES)
+                return null;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION || mapped.getLong() != signature
+                    || mapped.getInt() != CLASSES || mapped.getInt() != model.vmCount())
+                return null;
+
+            DoubleBuffer doubles = mapped.asDoubleBuffer();
+            double[] levels = new double[CLASSES * model.vmCount()];
+            if (doubles.remaining() < levels.length)
+                return null;
+            doubles.get(levels);
+            return new PheromoneSnapshot(signature, model.vmCount(), levels);
+        }
+    }
+
+    private static Path fileFor(Path directory, long signature) {
+        return directory.resolve(String.format("aco-%016x.pher", signature));
+    }
+
+    /**
+     * Class of a cloudlet: log2 of its length in thousands of MI (8 buckets), times
+     * the slack of its deadline window over its run time on an average VM (below 1, 2, 4, or more).
+     */
+    static int classOf(SpaceSharedSurrogate model, int cloudlet, double meanMips) {
+        double length = model.length(cloudlet);
+        int lengthClass = (int) Math.min(LENGTH_CLASSES - 1,
+                Math.max(0, Math.floor(Math.log(Math.max(1, length / 1000)) / Math.log(2))));
+
+        double slack = (model.deadline(cloudlet) - model.arrival(cloudlet)) / (length / meanMips);
+        int slackClass = slack < 1 ? 0 : slack < 2 ? 1 : slack < 4 ? 2 : 3;
+        return lengthClass * SLACK_CLASSES + slackClass;
+    }
+
+    /* VM count, each VM's MIPS and the class histogram rounded to 10% */
+    static long signature(SpaceSharedSurrogate model) {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + model.vmCount();
+        for (int vm = 0; vm < model.vmCount(); vm++)
+            hash = 31 * hash + Double.hashCode(Math.rint(model.mips(vm)));
+
+        int[] histogram = new int[CLASSES];
+        double meanMips = meanMips(model);
+        for (int c = 0; c < model.cloudletCount(); c++)
+            histogram[classOf(model, c, meanMips)]++;
+        for (int count : histogram)
+            hash = 31 * hash + Math.round(10.0 * count / Math.max(1, model.cloudletCount()));
+        return hash;
+    }
+
+    private static double meanMips(SpaceSharedSurrogate model) {
+        double total = 0;
+        for (int vm = 0; vm < model.vmCount(); vm++)
+            total += model.mips(vm);
+        return total / Math.max(1, model.vmCount());
+    }
+
+    public long signature() {
+        return signature;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PheromoneSnapshot[%016x, %d classes x %d VMs, mean level %.3f]",
+                signature, CLASSES, vms, Arrays.stream(levels).average().orElse(0));
+    }
+}
@@ -0,0 +1,139 @@
+package org.APD.Algorithms;
+
+import org.APD.AlgorithmResult;
+import org.APD.DeadlineCloudlet;
+import org.APD.RelevantDataForAlgorithms;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * "X + polish": runs another algorithm, takes the cloudlet → VM mapping it simulated, improves
+ * it with a {@link LocalSearchPolisher} for a bounded time or number of moves and simulates the
+ * polished mapping.
+ * <p>
+ * The polished plan runs on copies of the hosts, VMs and cloudlets taken before the wrapped
+ * algorithm ran, so it needs an algorithm that keeps the given hosts' speeds (not one that
+ * changes P-states, like {@link NSGA2Algorithm}). Cloudlets the wrapped algorithm did not place
+ * on one of its VMs start from round robin.
+ * </p>
+ */
+public class PolishedAlgorithm extends BaseSchedulingAlgorithm {
+
+    private final SchedulingAlgorithm algorithm;
+    private Duration budget = Duration.ofMillis(50);
+    private long maxMoves = 0;
+    private long seed = ThreadLocalRandom.current().nextLong();
+
+    private int lastViolationsBefore;
+    private int lastViolationsAfter;
+
+    public PolishedAlgorithm(SchedulingAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public AlgorithmResult run(RelevantDataForAlgorithms relevantData) {
+
+        copyGivenDataLocally(relevantData);
+
+        // the wrapped algorithm consumes the given lists, the polished plan is simulated on fresh copies
+        List<DeadlineCloudlet> cloudlets = copyCloudlets(cloudletList);
+        List<Vm> vms = copyVMs(vmList);
+        List<Host> hosts = copyHosts(hostList);
+
+        AlgorithmResult result = algorithm.run(relevantData);
+        int[] start = assignmentOf(result, relevantData.cloudletList());
+
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(cloudlets, vms);
+        lastViolationsBefore = model.evaluate(start);
+        LocalSearchPolisher polisher = new LocalSearchPolisher(model);
+        int[] polished = polisher.polish(start, budget, maxMoves, seed);
+        lastViolationsAfter = polisher.getBestViolations();
+
+        cloudletList = cloudlets;
+        vmList = vms;
+        hostList = hosts;
+        simulation = new CloudSimPlus();
+        Datacenter datacenter0 = createDatacenter(simulation, hostList);
+        broker0 = new DatacenterBrokerSimple(simulation);
+        broker0.submitVmList(vmList);
+        for (int i = 0; i < cloudletList.size(); i++) {
+            cloudletList.get(i).setVm(vmList.get(polished[i]));
+            broker0.submitCloudlet(cloudletList.get(i));
+        }
+        simulation.start();
+
+        return new AlgorithmResult(result.algorithmName() + " + polish",
+                cloudletList, hostList, vmList, broker0.getCloudletFinishedList(), 0);
+    }
+
+    /* VM index of every cloudlet, by position in the result's VM list */
+    private static int[] assignmentOf(AlgorithmResult result, List<DeadlineCloudlet> cloudlets) {
+        Map<Vm, Integer> vmIndex = new IdentityHashMap<>();
+        for (int j = 0; j < result.vms().size(); j++)
+            vmIndex.put(result.vms().get(j), j);
+
+        int[] assignment = new int[cloudlets.size()];
+        for (int i = 0; i < assignment.length; i++) {
+            Integer vm = vmIndex.get(cloudlets.get(i).getVm());
+            assignment[i] = vm != null ? vm : i % result.vms().size();
+        }
+        return assignment;
+    }
+
+    @Override
+    public String getName() {
+        return algorithm.getName() + " + polish";
+    }
+
+    /** Wall-clock time given to the local search when its moves are not capped; 50 ms by default. */
+    public PolishedAlgorithm setBudget(Duration budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * Runs the local search for this many moves instead of the time budget, so the same seed gives
+     * the same plan; {@code 0} for the time budget.
+     */
+    public PolishedAlgorithm setMaxMoves(long maxMoves) {
+        this.maxMoves = maxMoves;
+        return this;
+    }
+
+    /** Seeds the local search, and the wrapped algorithm with the same seed. */
+    @Override
+    public PolishedAlgorithm setSeed(long seed) {
+        this.seed = seed;
+        algorithm.setSeed(seed);
+        return this;
+    }
+
+    /* only a move-capped search repeats, see setMaxMoves */
+    @Override
+    public String cacheKey() {
+        String key = algorithm.cacheKey();
+        if (key == null || maxMoves <= 0)
+            return null;
+        return String.format("%s maxMoves=%d seed=%d of %s", getClass().getName(), maxMoves, seed, key);
+    }
+
+    /** Surrogate violations of the wrapped algorithm's mapping in the last run. */
+    public int getLastViolationsBefore() {
+        return lastViolationsBefore;
+    }
+
+    /** Surrogate violations of the polished mapping in the last run. */
+    public int getLastViolationsAfter() {
+        return lastViolationsAfter;
+    }
+}
@@ -6,4 +6,21 @@ import org.APD.RelevantDataForAlgorithms;
 public interface SchedulingAlgorithm {
     AlgorithmResult run(RelevantDataForAlgorithms input);
     String getName();
+
+    /**
+     * Seeds every random choice of the next runs, so the same seed on the same input gives the same plan.
+     * Deterministic algorithms ignore it.
+     */
+    default SchedulingAlgorithm setSeed(long seed) {
+        return this;
+    }
+
+    /**
+     * The settings that decide the plans of the next runs, seed included, as the run cache keys them;
+     * {@code null} when the same settings may still give another plan, e.g. on a wall-clock budget.
+     * Algorithms without settings or random choices are keyed by their class.
+     */
+    default String cacheKey() {
+        return getClass().getName();
+    }
 }
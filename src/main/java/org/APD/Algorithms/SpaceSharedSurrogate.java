@@ -0,0 +1,185 @@
+package org.APD.Algorithms;
+
+import org.APD.DeadlineCloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analytic stand-in for a CloudSim Plus run where every VM uses a
+ * {@link org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared}.
+ * <p>
+ * Each VM is modelled as a single FIFO queue: a cloudlet starts at
+ * {@code max(arrival, vmFreeAt)} and runs for {@code length / mips} seconds.
+ * The cloudlet data is copied once into primitive arrays, so scoring an
+ * assignment is a single pass over them with no object allocation.
+ * </p>
+ * <p>
+ * Assignments are {@code int[cloudletIndex] -> vmIndex}, where both indexes are
+ * positions in the lists given to the constructor (cloudlets in arrival order).
+ * </p>
+ */
+public class SpaceSharedSurrogate {
+
+    private final double[] arrival;
+    private final double[] length;
+    private final double[] deadline;
+    private final double[] vmMips;
+    // time each VM finishes work it already had before these cloudlets, all zero for an idle start
+    private final double[] vmReadyAt;
+
+    /* per-evaluation scratch: when each VM becomes free */
+    private final double[] vmFreeAt;
+
+    private int lastViolations;
+    private double lastMakespan;
+
+    public SpaceSharedSurrogate(List<DeadlineCloudlet> cloudlets, List<Vm> vms) {
+        this(cloudlets, vms, new double[vms.size()]);
+    }
+
+    /**
+     * Models the cloudlets on VMs that are still busy until {@code vmReadyAt[vm]},
+     * e.g. with a backlog left by cloudlets that were scheduled earlier.
+     */
+    public SpaceSharedSurrogate(List<DeadlineCloudlet> cloudlets, List<Vm> vms, double[] vmReadyAt) {
+        if (vmReadyAt.length != vms.size())
+            throw new IllegalArgumentException("Expected one ready time per VM");
+        int n = cloudlets.size();
+        arrival  = new double[n];
+        length   = new double[n];
+        deadline = new double[n];
+        for (int i = 0; i < n; i++) {
+            DeadlineCloudlet cl = cloudlets.get(i);
+            arrival[i]  = cl.getSubmissionDelay();
+            length[i]   = cl.getLength();
+            deadline[i] = cl.getDeadline();
+        }
+
+        vmMips = new double[vms.size()];
+        for (int j = 0; j < vmMips.length; j++)
+            vmMips[j] = vms.get(j).getMips();
+
+        this.vmReadyAt = vmReadyAt.clone();
+        vmFreeAt = new double[vmMips.length];
+    }
+
+    /* shares the read-only cloudlet and VM arrays, with its own scratch space */
+    private SpaceSharedSurrogate(SpaceSharedSurrogate other) {
+        arrival  = other.arrival;
+        length   = other.length;
+        deadline = other.deadline;
+        vmMips   = other.vmMips;
+        vmReadyAt = other.vmReadyAt;
+        vmFreeAt = new double[vmMips.length];
+    }
+
+    /**
+     * Returns a surrogate over the same data that can be used from another thread.
+     * Only the per-VM scratch array is allocated.
+     */
+    public SpaceSharedSurrogate withOwnScratch() {
+        return new SpaceSharedSurrogate(this);
+    }
+
+    /**
+     * Replays the assignment through the queueing model.
+     * The results are available through {@link #getLastViolations()} and
+     * {@link #getLastMakespan()} until the next call.
+     * Not thread-safe: each thread must use its own instance.
+     *
+     * @param assignment cloudlet index → VM index
+     * @return the number of cloudlets that finish after their deadline
+     */
+    public int evaluate(int[] assignment) {
+        return evaluate(assignment, 0);
+    }
+
+    /**
+     * Same as {@link #evaluate(int[])} for an assignment stored at
+     * {@code genes[offset .. offset + cloudletCount())}, e.g. one individual of a flat population.
+     */
+    public int evaluate(int[] genes, int offset) {
+        copyVmReadyTimes(vmFreeAt);
+        int violations = 0;
+        double makespan = 0.0;
+
+        for (int i = 0; i < arrival.length; i++) {
+            int vm = genes[offset + i];
+            double start = Math.max(arrival[i], vmFreeAt[vm]);
+            double finish = start + length[i] / vmMips[vm];
+            vmFreeAt[vm] = finish;
+
+            if (finish > deadline[i]) violations++;
+            if (finish > makespan) makespan = finish;
+        }
+
+        lastViolations = violations;
+        lastMakespan = makespan;
+        return violations;
+    }
+
+    /**
+     * Same as {@link #evaluate(int[], int)}, with each VM running at {@code vmMips[vm]} instead of
+     * its own MIPS, e.g. after a P-state change. Each VM's total run time is written to {@code vmBusy}.
+     */
+    public int evaluate(int[] genes, int offset, double[] vmMips, double[] vmBusy) {
+        copyVmReadyTimes(vmFreeAt);
+        Arrays.fill(vmBusy, 0, vmMips.length, 0.0);
+        int violations = 0;
+        double makespan = 0.0;
+
+        for (int i = 0; i < arrival.length; i++) {
+            int vm = genes[offset + i];
+            double run = length[i] / vmMips[vm];
+            double finish = Math.max(arrival[i], vmFreeAt[vm]) + run;
+            vmFreeAt[vm] = finish;
+            vmBusy[vm] += run;
+
+            if (finish > deadline[i]) violations++;
+            if (finish > makespan) makespan = finish;
+        }
+
+        lastViolations = violations;
+        lastMakespan = makespan;
+        return violations;
+    }
+
+    /** Writes each VM's starting free time into {@code dest}. */
+    public void copyVmReadyTimes(double[] dest) {
+        System.arraycopy(vmReadyAt, 0, dest, 0, vmReadyAt.length);
+    }
+
+    public int getLastViolations() {
+        return lastViolations;
+    }
+
+    public double getLastMakespan() {
+        return lastMakespan;
+    }
+
+    public double arrival(int cloudlet) {
+        return arrival[cloudlet];
+    }
+
+    public double length(int cloudlet) {
+        return length[cloudlet];
+    }
+
+    public double deadline(int cloudlet) {
+        return deadline[cloudlet];
+    }
+
+    public double mips(int vm) {
+        return vmMips[vm];
+    }
+
+    public int cloudletCount() {
+        return arrival.length;
+    }
+
+    public int vmCount() {
+        return vmMips.length;
+    }
+}
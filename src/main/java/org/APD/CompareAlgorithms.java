@@ -12,10 +12,9 @@ import org.cloudsimplus.hosts.HostSimple;
 import org.cloudsimplus.vms.Vm;
 import org.cloudsimplus.util.Log;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintStream;
 import org.APD.Algorithms.SchedulingAlgorithm;
-import org.cloudsimplus.vms.VmResourceStats;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,14 +23,24 @@ import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static java.util.Comparator.comparingLong;
 
 public class CompareAlgorithms extends AlgorithmBaseFunctionalities {
 
     private static final double PERCENTAGE_OF_SLA_VIOLATIONS_NOT_ACCEPTABLE = 0.6; // 10% of SLA violations are not acceptable
+    private static final long DEFAULT_EXPERIMENT_SEED = 42; // every workload and algorithm seed derives from this one
+    private static final long POLISH_MOVES = 50_000; // about the default 50 ms of local search, but repeatable
+
+    private long experimentSeed = DEFAULT_EXPERIMENT_SEED;
+    private RunCache runCache; // null: every run is computed
 
     public static void main(String[] args) {
         Log.setLevel(Level.OFF);
@@ -40,60 +49,95 @@ public class CompareAlgorithms extends AlgorithmBaseFunctionalities {
 
     public void RunCompareAlgorithms(String[] args) {
         try (
-                PrintStream fileOut = new PrintStream("algorithm_output.txt")
+                PrintStream fileOut = new PrintStream("algorithm_output.txt");
+                RunCache cache = new RunCache(Paths.get("results_csv", "run_cache.bin"))
         ) {
             System.setOut(fileOut); // All log output goes here
+            runCache = cache;
 
             // Define where to write the CSV summary
             Path csvPath = Paths.get(args.length > 0 ? args[0] : "sla_summary.csv");
+            if (args.length > 1)
+                experimentSeed = Long.parseLong(args[1]);
 
             PowerModelPStateProcessor currentPowerModel = new PowerModelPstateProcessor_2GHz_Via_C7_M(0);
             PowerModelPStateProcessor.PerformanceState[] performanceStates = currentPowerModel.getPossiblePerformanceStates();
 
             // Generate cloudlets (shared across all runs)
-            List<DeadlineCloudlet> cloudletListInitial = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs();
-
-            // Collect all results
-            List<AlgorithmResult> results = new ArrayList<>();
-
-            // Round Robin
-            results.addAll(runAlgorithmEnergyAware(
-                    new RoundRobinAlgorithm(), "Round Robin",
-                    cloudletListInitial, createHostsInitialDistribution(), createVms()));
-
-            // FCFS
-            results.addAll(runAlgorithmEnergyAware(
-                    new FCFSAlgorithm_bin(), "FCFS",
-                    cloudletListInitial, createHostsInitialDistribution(), createVms()));
-
-            // GA
-            results.addAll(runAlgorithmEnergyAware(
-                    new GAAlgorithm(), "GA",
-                    cloudletListInitial, createHostsInitialDistribution(), createVms()));
-
-            // ACO
-            results.addAll(runAlgorithmEnergyAware(
-                    new ACOAlgorithm(), "ACO",
-                    cloudletListInitial, createHostsInitialDistribution(), createVms()));
-
-            // Write all SLA stats to a single CSV
-            exportResultsToCsv(results, csvPath);
+            List<DeadlineCloudlet> cloudletListInitial = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(workloadSeed(0));
+
+            // Every SLA row goes to a single CSV as soon as its run is done; cells already in the run cache are not run again
+            try (CsvResultSink results = new CsvResultSink(csvPath)) {
+                // Round Robin
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new RoundRobinAlgorithm(), "Round Robin",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+
+                // FCFS
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new FCFSAlgorithm_bin(), "FCFS",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+
+                // GA
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new GAAlgorithm().setSeed(algorithmSeed("GA", 0)), "GA",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+
+                // ACO
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new ACOAlgorithm().setSeed(algorithmSeed("ACO", 0)), "ACO",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+
+                // PSO
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new PSOAlgorithm().setSeed(algorithmSeed("PSO", 0)), "PSO",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+
+                // X + polish: the same algorithms, with a move-capped local search over their final mapping
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new PolishedAlgorithm(new FCFSAlgorithm_bin()).setMaxMoves(POLISH_MOVES).setSeed(algorithmSeed("FCFS + polish", 0)), "FCFS + polish",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new PolishedAlgorithm(new GAAlgorithm()).setMaxMoves(POLISH_MOVES).setSeed(algorithmSeed("GA + polish", 0)), "GA + polish",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+                results.acceptAll(runAlgorithmEnergyAwareCached(
+                        new PolishedAlgorithm(new ACOAlgorithm()).setMaxMoves(POLISH_MOVES).setSeed(algorithmSeed("ACO + polish", 0)), "ACO + polish",
+                        cloudletListInitial, createHostsInitialDistribution(), createVms()));
+
+                // NSGA-II: one run searches the P-states too, so it does not go through the slow-down loop.
+                // Not cached, its Pareto front is written from the run itself
+                NSGA2Algorithm nsga2 = new NSGA2Algorithm().setSeed(algorithmSeed("NSGA-II", 0));
+                results.accept(RunSummary.of(runAlgorithmAndPrintStats(
+                        nsga2, "NSGA-II",
+                        cloudletListInitial, createVms(), createHostsInitialDistribution())));
+                nsga2.exportParetoFront(Paths.get("pareto_front.csv"));
+
+                // ACO Energy: the ants choose the hosts' P-states too, so it does not go through the slow-down loop either
+                SchedulingAlgorithm acoEnergy = new ACOAlgorithmEnergyHeuristic().setSeed(algorithmSeed("ACO Energy", 0));
+                List<Host> acoEnergyHosts = createHostsInitialDistribution();
+                List<Vm> acoEnergyVms = createVms();
+                results.acceptAll(cached("single run", acoEnergy, "ACO Energy", cloudletListInitial, acoEnergyHosts, acoEnergyVms,
+                        () -> List.of(RunSummary.of(runAlgorithmAndPrintStats(
+                                acoEnergy, "ACO Energy", cloudletListInitial, acoEnergyVms, acoEnergyHosts)))));
+            }
 
-//            testACOHyperparametersParallel();
+//            raceACOHyperparameters();
 
             System.err.println("✔ Summary written to: " + csvPath);
 
-            runOneAlgorithmMultipleTimes(
-                    RoundRobinAlgorithm.class, "Round Robin Multiple Runs", 128);
-            runOneAlgorithmMultipleTimes(
-                    FCFSAlgorithm_bin.class, "FCFS Multiple Runs", 128);
-            runOneAlgorithmMultipleTimes(
-                    GAAlgorithm.class, "GA Multiple Runs", 128);
-            runOneAlgorithmMultipleTimes(
-                    ACOAlgorithm.class, "ACO Multiple Runs", 128);
+            // every run of every algorithm goes through one executor, longest runs first
+            Map<String, Class<? extends SchedulingAlgorithm>> multipleRuns = new LinkedHashMap<>();
+            multipleRuns.put("Round Robin Multiple Runs", RoundRobinAlgorithm.class);
+            multipleRuns.put("FCFS Multiple Runs", FCFSAlgorithm_bin.class);
+            multipleRuns.put("GA Multiple Runs", GAAlgorithm.class);
+            multipleRuns.put("ACO Multiple Runs", ACOAlgorithm.class);
+            multipleRuns.put("PSO Multiple Runs", PSOAlgorithm.class);
+            runAlgorithmsMultipleTimes(multipleRuns, 128);
 
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            runCache = null;
         }
     }
 
@@ -106,7 +150,7 @@ public class CompareAlgorithms extends AlgorithmBaseFunctionalities {
         // Parallel execution
         int numThreads = Runtime.getRuntime().availableProcessors();
         ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        List<Future<List<AlgorithmResult>>> futures = new ArrayList<>();
+        List<Future<List<RunSummary>>> futures = new ArrayList<>();
 
         for (int ants : antOptions) {
             for (int iters : iterationOptions) {
@@ -119,16 +163,17 @@ public class CompareAlgorithms extends AlgorithmBaseFunctionalities {
                         final double finalEvap = evap;
                         final int finalRun = run;
 
-                        Callable<List<AlgorithmResult>> task = () -> {
+                        Callable<List<RunSummary>> task = () -> {
                             String label = String.format("ACO_Ants%d_Iters%d_Evap%.2f_iter_%d",
                                     finalAnts, finalIters, finalEvap, finalRun);
                             System.out.println(">>> Running: " + label);
 
-                            List<DeadlineCloudlet> cloudlets = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs();
+                            List<DeadlineCloudlet> cloudlets = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(workloadSeed(finalRun));
                             List<Vm> vms = createVms();
                             List<Host> hosts = createHostsInitialDistribution();
 
-                            ACOAlgorithm aco = new ACOAlgorithm(finalAnts, finalIters, finalEvap);
+                            ACOAlgorithm aco = new ACOAlgorithm(finalAnts, finalIters, finalEvap)
+                                    .setSeed(algorithmSeed(label, finalRun));
                             return runAlgorithmEnergyAware(aco, label, cloudlets, hosts, vms);
                         };
 
@@ -139,10 +184,10 @@ public class CompareAlgorithms extends AlgorithmBaseFunctionalities {
         }
 
         // Gather results
-        List<AlgorithmResult> allResults = new ArrayList<>();
-        for (Future<List<AlgorithmResult>> future : futures) {
+        List<RunSummary> allResults = new ArrayList<>();
+        for (Future<List<RunSummary>> future : futures) {
             try {
-                List<AlgorithmResult> result = future.get(); // blocking wait
+                List<RunSummary> result = future.get(); // blocking wait
                 if (result != null) {
                     allResults.addAll(result);
                 }
@@ -155,143 +200,265 @@ public class CompareAlgorithms extends AlgorithmBaseFunctionalities {
 
         // Export all to CSV
         Path outputPath = Paths.get("results_csv", "aco_param_sweep.csv");
-        exportResultsToCsv(allResults, outputPath);
+        exportSummariesToCsv(allResults, outputPath);
         System.out.println("✔ All ACO parameter runs saved to: " + outputPath);
     }
 
 
 
+    // workloads of the hyperparameter race, instance i is shared by every configuration that reaches it
+    private final List<List<DeadlineCloudlet>> raceInstances = new ArrayList<>();
+
+    /**
+     * Tunes ACO with {@link ACORacingTuner} instead of the exhaustive sweep of
+     * {@link #testACOHyperparametersParallel()}: configurations that are statistically worse
+     * than the best one stop getting runs. Ants are scored with the surrogate during the search,
+     * the cost is the SLA violations of the final simulated plan with makespan as a tie-breaker.
+     */
+    public ACORacingTuner.Configuration raceACOHyperparameters() {
+        List<ACORacingTuner.Configuration> grid = ACORacingTuner.grid(
+                new int[]{5, 10, 20, 30},
+                new int[]{10, 20, 30, 50},
+                new double[]{0.1, 0.2},
+                new int[]{1, 2},
+                new int[]{1, 2, 3});
+
+        ACORacingTuner tuner = new ACORacingTuner(grid, (aco, instance) -> {
+            aco.setEvaluationMode(ACOAlgorithm.EvaluationMode.SURROGATE);
+            String label = String.format("ACO_race_instance_%d", instance);
+            AlgorithmResult result = runAlgorithmAndPrintStats(
+                    aco, label, raceInstance(instance), createVms(), createHostsInitialDistribution());
+
+            int violations = 0;
+            double makespan = 0;
+            for (Cloudlet cl : result.cloudletFinishedList()) {
+                if (cl instanceof DeadlineCloudlet dc && dc.getFinishTime() > dc.getDeadline())
+                    violations++;
+                makespan = Math.max(makespan, cl.getFinishTime());
+            }
+            return violations + makespan / (1 + makespan);
+        }).setMaxInstances(16)
+                .setSeeds(instance -> algorithmSeed("ACO race", instance));
+
+        return tuner.race();
+    }
+
+    private synchronized List<DeadlineCloudlet> raceInstance(int instance) {
+        while (raceInstances.size() <= instance)
+            raceInstances.add(createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(workloadSeed(raceInstances.size())));
+        return raceInstances.get(instance);
+    }
+
     public void runOneAlgorithmMultipleTimes(
             Class<? extends SchedulingAlgorithm> algorithmClass, String label, int iterations) {
+        runAlgorithmsMultipleTimes(Map.of(label, algorithmClass), iterations);
+    }
 
-        String cleanLabel = label.replaceAll("\\s+", "_");
+    /**
+     * Runs every algorithm {@code iterations} times, each run on a fresh workload through
+     * {@link #runAlgorithmEnergyAware}, and writes one CSV per algorithm. All runs of all algorithms
+     * share one {@link ExperimentExecutor}, so the longest runs start first whichever algorithm they
+     * belong to. Each run's rows are streamed into its algorithm's CSV as soon as it finishes, so the
+     * rows are in completion order, told apart by the run number in their name. Runs the run cache
+     * already has are written straight away, without going through the executor, so they do not
+     * teach it a run time of about zero.
+     *
+     * @param algorithms label → algorithm class, which needs a no-arg constructor
+     */
+    public void runAlgorithmsMultipleTimes(Map<String, Class<? extends SchedulingAlgorithm>> algorithms, int iterations) {
         Path outputDir = Paths.get("results_csv", "results_multiple_iterations_algorithm_smaller_aco");
-        Path outputFile = outputDir.resolve(cleanLabel + ".csv");
-
         try {
             Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            System.err.println("❌ Cannot create " + outputDir);
+            e.printStackTrace();
+            return;
+        }
 
-            int numThreads = Runtime.getRuntime().availableProcessors(); // use all logical cores
-            ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-            List<Future<List<AlgorithmResult>>> futures = new ArrayList<>();
-
-            for (int i = 1; i <= iterations; i++) {
-                final int runIndex = i;
-                Callable<List<AlgorithmResult>> task = () -> {
-                    String runLabel = String.format("%s_%dtimes_%d", cleanLabel, iterations, runIndex);
-                    System.out.println(">>> Running: " + runLabel);
-
-                    List<DeadlineCloudlet> cloudlets = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs();
-                    List<Vm> vms = createVms();
-                    List<Host> hosts = createHostsInitialDistribution();
-
-                    long start = System.currentTimeMillis();
-                    SchedulingAlgorithm algorithmInstance = algorithmClass.getDeclaredConstructor().newInstance();
-
-                    List<AlgorithmResult> results = runAlgorithmEnergyAware(algorithmInstance, runLabel, cloudlets, hosts, vms);
-                    long elapsed = System.currentTimeMillis() - start;
-
-                    // Add total execution time to each result
-                    return results.stream().map(r ->
-                            new AlgorithmResult(
-                                    r.algorithmName(),
-                                    r.cloudlets(),
-                                    r.hosts(),
-                                    r.vms(),
-                                    r.cloudletFinishedList(),
-                                    elapsed
-                            )
-                    ).toList();
+        // the sinks outlive the executor, whose close waits for the last run to hand in its rows
+        List<CsvResultSink> sinks = new ArrayList<>();
+        try (ExperimentExecutor executor = new ExperimentExecutor(
+                Runtime.getRuntime().availableProcessors(), outputDir.resolve("runtimes.properties"))) {
+            for (Map.Entry<String, Class<? extends SchedulingAlgorithm>> algorithm : algorithms.entrySet()) {
+                String label = algorithm.getKey();
+                String cleanLabel = label.replaceAll("\\s+", "_");
+                Path outputFile = outputDir.resolve(cleanLabel + ".csv");
+
+                CsvResultSink sink = new CsvResultSink(outputFile);
+                sinks.add(sink);
+                AtomicInteger remaining = new AtomicInteger(iterations);
+                Runnable runDone = () -> {
+                    if (remaining.decrementAndGet() == 0)
+                        System.out.println("✔ Parallel multiple-run results saved to: " + outputFile.toAbsolutePath());
                 };
 
-                futures.add(executor.submit(task));
-            }
-
-            // Wait for all to finish and collect results
-            List<AlgorithmResult> allRuns = new ArrayList<>();
-            for (Future<List<AlgorithmResult>> future : futures) {
-                try {
-                    allRuns.addAll(future.get()); // blocking wait
-                } catch (InterruptedException | ExecutionException e) {
-                    e.printStackTrace();
+                for (int i = 1; i <= iterations; i++) {
+                    final int runIndex = i;
+                    String runLabel = repetitionLabel(cleanLabel, iterations, runIndex);
+                    String key = repetitionKey(algorithm.getValue(), cleanLabel, runIndex);
+                    List<RunSummary> cachedRuns = key == null ? null : runCache.get(key, runLabel);
+                    if (cachedRuns != null) {
+                        sink.acceptAll(cachedRuns);
+                        runDone.run();
+                        continue;
+                    }
+                    executor.submit(cleanLabel, () -> runRepetition(algorithm.getValue(), cleanLabel, runLabel, runIndex, key))
+                            .whenComplete((results, error) -> {
+                                if (error != null) {
+                                    System.err.println("❌ Error running " + label + " run " + runIndex);
+                                    error.printStackTrace();
+                                } else {
+                                    sink.acceptAll(results);
+                                }
+                                runDone.run();
+                            });
                 }
             }
+            executor.start();
+        } catch (IOException e) {
+            System.err.println("❌ Cannot open the results CSVs in " + outputDir);
+            e.printStackTrace();
+        } catch (ReflectiveOperationException e) {
+            System.err.println("❌ Cannot create the algorithms of the multiple-run sweep");
+            e.printStackTrace();
+        } finally {
+            sinks.forEach(CsvResultSink::close);
+        }
+    }
 
-            executor.shutdown();
-            exportResultsToCsv(allRuns, outputFile);
+    private static String repetitionLabel(String cleanLabel, int iterations, int runIndex) {
+        return String.format("%s_%dtimes_%d", cleanLabel, iterations, runIndex);
+    }
 
-            System.out.println("✔ Parallel multiple-run results saved to: " + outputFile.toAbsolutePath());
+    /* run cache key of one run of the multiple-run sweep; null without a cache or for algorithms it cannot key */
+    private String repetitionKey(Class<? extends SchedulingAlgorithm> algorithmClass, String cleanLabel, int runIndex)
+            throws ReflectiveOperationException {
+        if (runCache == null)
+            return null;
+        SchedulingAlgorithm algorithmInstance = repetitionAlgorithm(algorithmClass, cleanLabel, runIndex);
+        return RunCache.key(energyAwareContext() + " total-time", algorithmInstance,
+                createRelevantDataForAlgorithms(createVms(),
+                        createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(workloadSeed(runIndex)),
+                        createHostsInitialDistribution()));
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Error running " + label + " multiple times (parallelized)");
-            e.printStackTrace();
-        }
+    private SchedulingAlgorithm repetitionAlgorithm(Class<? extends SchedulingAlgorithm> algorithmClass,
+                                                    String cleanLabel, int runIndex) throws ReflectiveOperationException {
+        return algorithmClass.getDeclaredConstructor().newInstance().setSeed(algorithmSeed(cleanLabel, runIndex));
     }
 
+    /*
+     * one run of the multiple-run sweep, every result stamped with the run's total time and stored in the
+     * run cache under {@code key} unless that is null; run i of every algorithm gets the same workload
+     */
+    private List<RunSummary> runRepetition(Class<? extends SchedulingAlgorithm> algorithmClass, String cleanLabel,
+                                           String runLabel, int runIndex, String key) throws Exception {
+        System.out.println(">>> Running: " + runLabel);
 
+        List<DeadlineCloudlet> cloudlets = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(workloadSeed(runIndex));
+        List<Vm> vms = createVms();
+        List<Host> hosts = createHostsInitialDistribution();
 
-    public List<AlgorithmResult> runAlgorithmEnergyAware(SchedulingAlgorithm algorithmInstance, String label, List<DeadlineCloudlet> cloudletList, List<Host> hostList, List<Vm> vmList) {
-        AlgorithmResult result = null;
-        List<AlgorithmResult> results = new ArrayList<>();
-        while(true) {
+        SchedulingAlgorithm algorithmInstance = repetitionAlgorithm(algorithmClass, cleanLabel, runIndex);
 
-            result = runAlgorithmAndPrintStats(algorithmInstance, label, cloudletList, vmList, hostList);
-            results.add(result);
-            // Check if the SLA violations are bigger than half
-            int nrOfSlaViolations = 0;
-            for (Cloudlet cl : result.cloudletFinishedList()) {
-                if (cl instanceof DeadlineCloudlet dc) {
-                    double finish = dc.getFinishTime();
-                    double deadline = dc.getDeadline();
-                    boolean metDeadline = finish <= deadline;
+        long start = System.currentTimeMillis();
+        List<RunSummary> results = runAlgorithmEnergyAware(algorithmInstance, runLabel, cloudlets, hosts, vms);
+        long elapsed = System.currentTimeMillis() - start;
 
-                    if (!metDeadline)
-                        nrOfSlaViolations++;
-                }
-            }
-            if (nrOfSlaViolations >= result.cloudletFinishedList().size() * PERCENTAGE_OF_SLA_VIOLATIONS_NOT_ACCEPTABLE) {
-                System.out.println("SLA violations are not acceptable, stopping the algorithm.");
-                return results; // Return the result if SLA violations are not acceptable
-            } else {
-                Vm vmToSlowdown = result.vms().get(0); // Get the first VM to modify its power model
-                double cpuStatsToSlowdown = Double.MAX_VALUE;
-                result.vms().sort(comparingLong(vm -> vm.getHost().getId()));
-                for (Vm vm : result.vms()) {
-                    final var powerModel = vm.getHost().getPowerModel();
-                    final double hostStaticPower = powerModel instanceof PowerModelPStateProcessor powerModelHost ? powerModelHost.getStaticPower() : 0;
-                    final double hostStaticPowerByVm = hostStaticPower / vm.getHost().getVmCreatedList().size();
-
-                    //VM CPU utilization relative to the host capacity
-                    final double vmRelativeCpuUtilization = vm.getCpuUtilizationStats().getMean() / vm.getHost().getVmCreatedList().size();
-                    final double vmPower = powerModel.getPower(vmRelativeCpuUtilization) - hostStaticPower + hostStaticPowerByVm; // W
-                    final VmResourceStats cpuStats = vm.getCpuUtilizationStats();
-                    // if this vm has had a lower CPU utilization than the best so far, then we can slow it down
-                    if(cpuStats.getMean() < cpuStatsToSlowdown && ((PowerModelPStateProcessor) (vm.getHost().getPowerModel())).getCurrentPerformanceState() > 0) {
-                        cpuStatsToSlowdown = cpuStats.getMean();
-                        vmToSlowdown = vm;
-                    }
-                }
-                // slowdown the host that owns the VM
-                int currentStateIdx = ((PowerModelPStateProcessor) (vmToSlowdown.getHost().getPowerModel())).getCurrentPerformanceState();
-                if (currentStateIdx > 0) {
-                    HostVmPair hostVmPair = modifyHostAndVmToHaveOneHostWithLowerPower(hostList, vmList, vmToSlowdown);
-                    if (hostVmPair == null) {
-                        System.out.println("Failed to modify host and VM to have lower power. Stopping the algorithm.");
-                        break;
-                    }
-                    else {
-                        // modify the hostlist and vmlist with the new host and vm
-                        hostList = hostVmPair.hosts();
-                        vmList = hostVmPair.vms();
-                    }
-                } else {
-                    break;
-                }
-            }
-        }
+        // Add total execution time to each result
+        results = results.stream().map(r -> r.withTotalExecutionTime(elapsed)).toList();
+        if (key != null && !results.isEmpty())
+            runCache.put(key, results);
         return results;
     }
 
+    /**
+     * {@link #runAlgorithmEnergyAware} through the run cache: when the same algorithm with the same
+     * settings and seed already ran on the same workload and hosts, its summaries are read back
+     * instead of running it again. Algorithms without a {@link SchedulingAlgorithm#cacheKey() cache key}
+     * always run.
+     */
+    public List<RunSummary> runAlgorithmEnergyAwareCached(SchedulingAlgorithm algorithmInstance, String label, List<DeadlineCloudlet> cloudletList, List<Host> hostList, List<Vm> vmList) {
+        return cached(energyAwareContext(), algorithmInstance, label, cloudletList, hostList, vmList,
+                () -> runAlgorithmEnergyAware(algorithmInstance, label, cloudletList, hostList, vmList));
+    }
+
+    /* what the energy-aware runs depend on besides the algorithm and its input */
+    private static String energyAwareContext() {
+        return "energy-aware cutoff=" + PERCENTAGE_OF_SLA_VIOLATIONS_NOT_ACCEPTABLE;
+    }
+
+    /* the summaries {@code run} gives for the algorithm on this input, from the run cache when it has them */
+    private List<RunSummary> cached(String context, SchedulingAlgorithm algorithmInstance, String label,
+                                    List<DeadlineCloudlet> cloudletList, List<Host> hostList, List<Vm> vmList,
+                                    Supplier<List<RunSummary>> run) {
+        if (runCache == null)
+            return run.get();
+        String key = RunCache.key(context, algorithmInstance, createRelevantDataForAlgorithms(vmList, cloudletList, hostList));
+        return key == null ? run.get() : runCache.computeIfAbsent(key, label, run);
+    }
+
+    /* seed of the workload of repetition {@code run}, shared by all algorithms */
+    long workloadSeed(int run) {
+        return mix(experimentSeed, run);
+    }
+
+    /* seed of the algorithm labelled {@code label} in repetition {@code run} */
+    long algorithmSeed(String label, int run) {
+        return mix(workloadSeed(run), label.hashCode());
+    }
+
+    private static long mix(long seed, long salt) {
+        return new SplittableRandom(seed ^ (salt * 0x9E3779B97F4A7C15L)).nextLong();
+    }
+
+
+
+    /**
+     * Slows the hosts down one P-state at a time while the algorithm's runs stay acceptable, with
+     * {@link PStatePlanner}, and returns the summary of every run it made. Each run's simulation is
+     * dropped as soon as it is summarised.
+     */
+    public List<RunSummary> runAlgorithmEnergyAware(SchedulingAlgorithm algorithmInstance, String label, List<DeadlineCloudlet> cloudletList, List<Host> hostList, List<Vm> vmList) {
+        PStatePlanner planner = energyAwarePlanner(algorithmInstance, label, cloudletList, hostList, vmList);
+        List<RunSummary> summaries = planner.plan();
+        printPlan(planner, label);
+        return summaries;
+    }
+
+    /**
+     * {@link #runAlgorithmEnergyAware} keeping the full result of every run, simulation included, for
+     * callers that need more than the summaries. Holds every run's hosts, VMs and cloudlets until dropped.
+     */
+    public List<AlgorithmResult> runAlgorithmEnergyAwareKeepingResults(SchedulingAlgorithm algorithmInstance, String label, List<DeadlineCloudlet> cloudletList, List<Host> hostList, List<Vm> vmList) {
+        PStatePlanner planner = energyAwarePlanner(algorithmInstance, label, cloudletList, hostList, vmList)
+                .setKeepResults(true);
+        planner.plan();
+        printPlan(planner, label);
+        return planner.getResults();
+    }
+
+    private PStatePlanner energyAwarePlanner(SchedulingAlgorithm algorithmInstance, String label, List<DeadlineCloudlet> cloudletList, List<Host> hostList, List<Vm> vmList) {
+        return new PStatePlanner(this, hostList, vmList,
+                (hosts, vms) -> runAlgorithmAndPrintStats(algorithmInstance, label, cloudletList, vms, hosts),
+                this::isSlaAcceptable);
+    }
+
+    private static void printPlan(PStatePlanner planner, String label) {
+        if (planner.getBestStates() == null) {
+            System.out.println("SLA violations are not acceptable, stopping the algorithm.");
+        } else {
+            System.out.printf("%s: P-states %s in %d full runs, %d vectors settled by the monotonicity bound (one step at a time: up to %d runs)%n",
+                    label, Arrays.toString(planner.getBestStates()), planner.getFullRuns(),
+                    planner.getDecidedByBound(), planner.getOneStepRunsBound());
+        }
+    }
+
+    /* the SLA cutoff: fewer than PERCENTAGE_OF_SLA_VIOLATIONS_NOT_ACCEPTABLE of the finished cloudlets late */
+    private boolean isSlaAcceptable(RunSummary summary) {
+        return summary.violations() < summary.totalCloudlets() * PERCENTAGE_OF_SLA_VIOLATIONS_NOT_ACCEPTABLE;
+    }
+
 
 
 
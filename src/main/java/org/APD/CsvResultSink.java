@@ -0,0 +1,243 @@
+package org.APD;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Streams run summaries into one SLA CSV as the runs finish, instead of opening the file per row
+ * or holding every result until the end.
+ * <p>
+ * Any number of threads {@link #accept} rows into a bounded queue; one writer thread owns the
+ * file and drains it through a single buffered writer. A full queue blocks the producers, so the
+ * memory used stays the same however many runs there are. After every batch the writer hands its
+ * rows to the OS, so they survive the JVM dying; at most every sync interval, and on
+ * {@link #close()}, it also forces them to the disk.
+ * </p>
+ * <p>
+ * Numbers are formatted by hand, to the same text {@code %.2f} gives. The file is started fresh,
+ * with the header of
+ * {@link org.APD.Algorithms.AlgorithmBaseFunctionalities#saveSlaStatsToCsv}.
+ * </p>
+ */
+public class CsvResultSink implements AutoCloseable {
+
+    public static final String HEADER = "Algorithm,TotalCloudlets,Violations,ViolationPct,"
+            + "Tier1,Tier2,Tier3,AvgTardiness,MaxTardiness,PowerConsumption,TotalTimeTaken";
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final Duration DEFAULT_SYNC_INTERVAL = Duration.ofSeconds(1);
+    private static final RunSummary END = new RunSummary(null, 0, 0, 0, 0, 0, 0, 0, 0, 0); // stops the writer
+
+    private final Path csvFile;
+    private final BlockingQueue<RunSummary> queue;
+    private final long syncIntervalNanos;
+    private final FileOutputStream file;
+    private final BufferedWriter writer;
+    private final Thread writerThread;
+    private final StringBuilder row = new StringBuilder(128); // writer thread only
+
+    // producers hold the read lock from the closed check to the end of their put, close takes the write
+    // lock to set closed, so no row can be queued behind END
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private volatile IOException failure;
+    private boolean closed; // guarded by closing
+    private int rows; // written, read after the writer thread ended
+
+    public CsvResultSink(Path csvFile) throws IOException {
+        this(csvFile, DEFAULT_CAPACITY, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * @param capacity     rows that can wait for the writer before {@link #accept} blocks
+     * @param syncInterval longest time a written row may stay in the OS cache only
+     */
+    public CsvResultSink(Path csvFile, int capacity, Duration syncInterval) throws IOException {
+        this.csvFile = csvFile;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.syncIntervalNanos = syncInterval.toNanos();
+        if (csvFile.getParent() != null)
+            Files.createDirectories(csvFile.getParent());
+        this.file = new FileOutputStream(csvFile.toFile());
+        this.writer = new BufferedWriter(new OutputStreamWriter(file, StandardCharsets.UTF_8), 1 << 16);
+        writer.write(HEADER);
+        writer.newLine();
+
+        writerThread = new Thread(this::drain, "csv-sink-" + csvFile.getFileName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /** Queues one row, waiting while the queue is full. */
+    public void accept(RunSummary summary) {
+        closing.readLock().lock();
+        try {
+            if (closed)
+                throw new IllegalStateException("Sink for " + csvFile + " is closed");
+            // a failed writer stops draining, so do not wait on a full queue for it
+            while (failure == null && !queue.offer(summary, 100, TimeUnit.MILLISECONDS)) {
+            }
+            if (failure != null)
+                throw new UncheckedIOException("Unable to write SLA CSV " + csvFile, failure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a row for " + csvFile, e);
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    public void acceptAll(List<RunSummary> summaries) {
+        for (RunSummary summary : summaries)
+            accept(summary);
+    }
+
+    private void drain() {
+        long lastSync = System.nanoTime();
+        boolean unsynced = true; // the header
+        try {
+            while (true) {
+                long untilSync = unsynced ? Math.max(0, lastSync + syncIntervalNanos - System.nanoTime()) : Long.MAX_VALUE;
+                RunSummary next = queue.poll(untilSync, TimeUnit.NANOSECONDS);
+                boolean end = false;
+                for (; next != null; next = queue.poll()) {
+                    if (next == END) {
+                        end = true;
+                        break;
+                    }
+                    write(next);
+                    unsynced = true;
+                }
+                writer.flush();
+
+                if (end || (unsynced && System.nanoTime() - lastSync >= syncIntervalNanos)) {
+                    file.getFD().sync();
+                    lastSync = System.nanoTime();
+                    unsynced = false;
+                }
+                if (end)
+                    return;
+            }
+        } catch (IOException e) {
+            failure = e;
+            queue.clear(); // producers blocked on a full queue get through, and fail on their next row
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(RunSummary summary) throws IOException {
+        row.setLength(0);
+        appendRow(row, summary);
+        writer.append(row);
+        writer.newLine();
+        rows++;
+    }
+
+    /** One CSV row of {@code summary}, without the line break. */
+    public static void appendRow(StringBuilder row, RunSummary summary) {
+        row.append(summary.algorithmName()).append(',')
+                .append(summary.totalCloudlets()).append(',')
+                .append(summary.violations()).append(',');
+        appendFixed2(row, summary.violationPct()).append(',')
+                .append(summary.tier1()).append(',')
+                .append(summary.tier2()).append(',')
+                .append(summary.tier3()).append(',');
+        appendFixed2(row, summary.avgTardiness()).append(',');
+        appendFixed2(row, summary.maxTardiness()).append(',');
+        appendFixed2(row, summary.powerConsumption()).append(',');
+        appendFixed2(row, summary.totalExecutionTime() / 1000.0);
+    }
+
+    /**
+     * {@code value} with two decimals, as {@code %.2f} prints it but without going through
+     * {@link java.util.Formatter}: rounded half up from the shortest decimal that gives back the double.
+     */
+    public static StringBuilder appendFixed2(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            return out.append(value);
+        double abs = Math.abs(value);
+        if (abs >= 1e11) // past where the tie checks below are exact
+            return out.append(new BigDecimal(Double.toString(value)).setScale(2, RoundingMode.HALF_UP).toPlainString());
+
+        // abs * 100 may land on the wrong side of a tie; a decimal x.xx5 parses to the same double
+        // as abs exactly when that is the shortest decimal of abs
+        long hundredths = Math.round(abs * 100);
+        if (abs >= (hundredths * 10 + 5) / 1000.0)
+            hundredths++;
+        else if (abs < (hundredths * 10 - 5) / 1000.0)
+            hundredths--;
+
+        if (Double.doubleToRawLongBits(value) < 0)
+            out.append('-');
+        out.append(hundredths / 100).append('.');
+        long cents = hundredths % 100;
+        if (cents < 10)
+            out.append('0');
+        return out.append(cents);
+    }
+
+    /**
+     * Writes what is still queued, forces it to the disk and closes the file. Waits for the writer
+     * even when interrupted, and keeps the interrupt for the caller.
+     */
+    @Override
+    public void close() {
+        closing.writeLock().lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+
+        boolean interrupted = false;
+        // the writer may have failed and stopped draining, so do not wait on a full queue for it
+        boolean ended = false;
+        while (!ended && writerThread.isAlive()) {
+            try {
+                ended = queue.offer(END, 100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (failure == null)
+                failure = e;
+        }
+        if (failure != null)
+            throw new UncheckedIOException("Unable to write SLA CSV " + csvFile, failure);
+    }
+
+    /** Rows written so far; exact once the sink is closed. */
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,212 @@
+package org.APD;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One pool for every run of an experiment sweep, so the cores stay busy across algorithms
+ * instead of idling while the last runs of one batch drain.
+ * <p>
+ * Tasks are submitted with a kind, e.g. the algorithm's label, and wait in one queue per kind.
+ * A free worker always takes the next task of the kind expected to run longest, so the long
+ * runs start first and the short ones fill the gaps at the end. The expectation is a moving
+ * average of the kind's past run times, carried over between sweeps in a history file; kinds
+ * never seen yet go first. Submit the whole sweep before {@link #start()} so the order covers it.
+ * </p>
+ * <p>
+ * Each task's result is delivered through its future as soon as it finishes. Callbacks run on
+ * the worker that ran the task, so they must be thread-safe.
+ * </p>
+ */
+public class ExperimentExecutor implements AutoCloseable {
+
+    private static final double SMOOTHING = 0.3; // weight of the newest run time in a kind's expectation
+
+    private record Task<T>(String kind, Callable<T> callable, CompletableFuture<T> future) { }
+
+    private final int threads;
+    private final Path runtimeHistory;
+
+    /* guarded by this */
+    private final Map<String, ArrayDeque<Task<?>>> pending = new LinkedHashMap<>();
+    private final Map<String, Double> expectedMillis = new HashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private int queued;
+    private boolean closed;
+    private long startNanos;
+    private long busyNanos;
+    private int completed;
+
+    /** One worker per available core; run times are not kept between sweeps. */
+    public ExperimentExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * @param runtimeHistory properties file of expected run times per kind, read now and rewritten
+     *                       on {@link #close()}; {@code null} to start without history and keep none
+     */
+    public ExperimentExecutor(int threads, Path runtimeHistory) {
+        if (threads < 1)
+            throw new IllegalArgumentException("At least one worker is needed");
+        this.threads = threads;
+        this.runtimeHistory = runtimeHistory;
+        if (runtimeHistory != null)
+            loadHistory();
+    }
+
+    /** Queues a task; it runs once the executor is started and no longer-expected task is waiting. */
+    public synchronized <T> CompletableFuture<T> submit(String kind, Callable<T> task) {
+        if (closed)
+            throw new IllegalStateException("Executor is closed");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pending.computeIfAbsent(kind, k -> new ArrayDeque<>()).add(new Task<>(kind, task, future));
+        queued++;
+        notifyAll();
+        return future;
+    }
+
+    /** Starts the workers; tasks submitted later are scheduled as well. Does nothing if already started. */
+    public synchronized ExperimentExecutor start() {
+        if (!workers.isEmpty())
+            return this;
+        startNanos = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::work, "experiment-worker-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        return this;
+    }
+
+    /**
+     * Runs everything still queued, waits for it, prints how close the sweep came to its total
+     * run time over the worker count and saves the run time history.
+     */
+    @Override
+    public void close() {
+        List<Thread> toJoin;
+        synchronized (this) {
+            start();
+            closed = true;
+            notifyAll();
+            toJoin = List.copyOf(workers);
+        }
+        for (Thread worker : toJoin) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        synchronized (this) {
+            double wallSeconds = (System.nanoTime() - startNanos) / 1e9;
+            double workSeconds = busyNanos / 1e9;
+            System.out.printf("Experiment sweep: %d runs in %.1f s on %d workers, %.1f s of run time (%.0f%% of the ideal %.1f s)%n",
+                    completed, wallSeconds, threads, workSeconds,
+                    wallSeconds > 0 ? 100.0 * workSeconds / threads / wallSeconds : 100.0, workSeconds / threads);
+            if (runtimeHistory != null)
+                saveHistory();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task<?> task;
+            synchronized (this) {
+                while (queued == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (queued == 0)
+                    return;
+                task = takeLongest();
+            }
+
+            long begin = System.nanoTime();
+            run(task);
+            long elapsed = System.nanoTime() - begin;
+
+            synchronized (this) {
+                busyNanos += elapsed;
+                completed++;
+                double millis = elapsed / 1e6;
+                expectedMillis.merge(task.kind(), millis, (old, now) -> (1 - SMOOTHING) * old + SMOOTHING * now);
+            }
+        }
+    }
+
+    private static <T> void run(Task<T> task) {
+        try {
+            task.future().complete(task.callable().call());
+        } catch (Throwable e) {
+            task.future().completeExceptionally(e);
+        }
+    }
+
+    /* next task of the kind expected to run longest, kinds without history first, then submission order */
+    private Task<?> takeLongest() {
+        ArrayDeque<Task<?>> longest = null;
+        double longestMillis = -1;
+        for (Map.Entry<String, ArrayDeque<Task<?>>> entry : pending.entrySet()) {
+            if (entry.getValue().isEmpty())
+                continue;
+            double millis = expectedMillis.getOrDefault(entry.getKey(), Double.POSITIVE_INFINITY);
+            if (millis > longestMillis) {
+                longestMillis = millis;
+                longest = entry.getValue();
+            }
+        }
+        queued--;
+        return longest.poll();
+    }
+
+    /** Expected run time of a task of the given kind in ms, or {@code NaN} if none ran yet. */
+    public synchronized double getExpectedMillis(String kind) {
+        return expectedMillis.getOrDefault(kind, Double.NaN);
+    }
+
+    private void loadHistory() {
+        if (!Files.exists(runtimeHistory))
+            return;
+        Properties history = new Properties();
+        try (InputStream in = Files.newInputStream(runtimeHistory)) {
+            history.load(in);
+            for (String kind : history.stringPropertyNames())
+                expectedMillis.put(kind, Double.parseDouble(history.getProperty(kind)));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not read run time history, scheduling without it: " + e.getMessage());
+        }
+    }
+
+    private void saveHistory() {
+        Properties history = new Properties();
+        expectedMillis.forEach((kind, millis) -> history.setProperty(kind, Double.toString(millis)));
+        try {
+            if (runtimeHistory.getParent() != null)
+                Files.createDirectories(runtimeHistory.getParent());
+            try (OutputStream out = Files.newOutputStream(runtimeHistory)) {
+                history.store(out, "expected run time per task kind, ms");
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save run time history: " + e.getMessage());
+        }
+    }
+}
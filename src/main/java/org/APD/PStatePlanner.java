@@ -0,0 +1,243 @@
+package org.APD;
+
+import org.APD.Algorithms.AlgorithmBaseFunctionalities;
+import org.APD.Algorithms.AlgorithmBaseFunctionalities.HostVmPair;
+import org.APD.Algorithms.PStateModel;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Walks the per-host P-state vector down the same path as the one-step slow-down loop, re-running
+ * the scheduling algorithm only when a step cannot be decided without it.
+ * <p>
+ * The loop runs the algorithm, stops if the run is not acceptable, and otherwise lowers by one
+ * state the host of the least used VM among the hosts that can still go lower, ties going to the
+ * lowest host id. The last acceptable vector is the result. Every step's host depends on the
+ * previous run's utilisation, so those runs are all made, as before.
+ * </p>
+ * <p>
+ * Once a single host is left above its lowest state the rest of the path is fixed: that host goes
+ * down until a run fails. Assuming slowing a host down never reduces the violations, a vector at
+ * or above one known to be acceptable is acceptable too and one at or below a known unacceptable
+ * vector is not, so that stretch is bisected and the states it does not run are settled by the bound.
+ * </p>
+ * <p>
+ * Each run is reduced to its {@link RunSummary} and per-VM utilisation as soon as it returns,
+ * so its simulation can be collected while the search goes on. The full results are kept only
+ * after {@link #setKeepResults(boolean)}.
+ * </p>
+ */
+public class PStatePlanner {
+
+    /** Runs the scheduling algorithm on the given hosts and VMs; may return {@code null} if the run failed. */
+    @FunctionalInterface
+    public interface Runner {
+        AlgorithmResult run(List<Host> hosts, List<Vm> vms);
+    }
+
+    private record Probe(int[] states, boolean acceptable, RunSummary summary, double[] vmUtilization) { }
+
+    private final AlgorithmBaseFunctionalities factory;
+    private final List<Host> hostList;
+    private final List<Vm> vmList;
+    private final Runner runner;
+    private final Predicate<RunSummary> acceptable;
+    private final PStateModel pStateModel;
+    private boolean keepResults;
+
+    private final List<Probe> probes = new ArrayList<>();
+    private final List<RunSummary> summaries = new ArrayList<>();
+    private final List<AlgorithmResult> results = new ArrayList<>(); // only with keepResults
+    private int decidedByBound;
+    private int[] bestStates;
+    private RunSummary bestSummary;
+
+    /**
+     * @param factory    builds the hosts of a moved P-state, see {@link PStateModel#apply}
+     * @param acceptable the SLA cutoff: whether a run's violations are acceptable
+     */
+    public PStatePlanner(AlgorithmBaseFunctionalities factory, List<Host> hostList, List<Vm> vmList,
+                         Runner runner, Predicate<RunSummary> acceptable) {
+        this.factory = factory;
+        this.hostList = hostList;
+        this.vmList = vmList;
+        this.runner = runner;
+        this.acceptable = acceptable;
+        this.pStateModel = new PStateModel(hostList, vmList);
+    }
+
+    /** Also keeps the full result of every run, see {@link #getResults()}; off by default. */
+    public PStatePlanner setKeepResults(boolean keepResults) {
+        this.keepResults = keepResults;
+        return this;
+    }
+
+    /**
+     * Runs the search and returns the summary of every full run, in the order they were made.
+     * The run of the chosen vector is {@link #getBestSummary()}; it is {@code null} when even the
+     * given states were not acceptable.
+     */
+    public List<RunSummary> plan() {
+        int[] states = pStateModel.currentStates();
+        Probe step = run(states);
+        if (!step.acceptable())
+            return summaries;
+
+        while (true) {
+            int host = leastUsedHost(step);
+            if (host < 0)
+                break;
+            if (hostsAboveLowest(states) == 1) {
+                // the loop would lower this host alone until a run fails
+                int[] from = states;
+                states = with(from, host, lowestAcceptable(from[host], s -> with(from, host, s)));
+                break;
+            }
+            Probe next = run(with(states, host, states[host] - 1));
+            if (!next.acceptable())
+                break;
+            states = next.states();
+            step = next;
+        }
+        choose(states);
+        return summaries;
+    }
+
+    /*
+     * bisection for the lowest level in [0, hi] whose vector is acceptable, hi's being known to be;
+     * every level it does not run is settled by the bound
+     */
+    private int lowestAcceptable(int hi, IntFunction<int[]> vectorAt) {
+        int runsBefore = probes.size();
+        int candidates = hi;
+        int lo = 0;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (probe(vectorAt.apply(mid))) hi = mid;
+            else lo = mid + 1;
+        }
+        decidedByBound += candidates - (probes.size() - runsBefore);
+        return hi;
+    }
+
+    /* answers from the bound when it can, otherwise runs the algorithm */
+    private boolean probe(int[] states) {
+        for (Probe known : probes) {
+            if (known.acceptable() ? atOrAbove(states, known.states()) : atOrAbove(known.states(), states))
+                return known.acceptable();
+        }
+        return run(states).acceptable();
+    }
+
+    /* one full run, of which only the summary and VM utilisation outlive this call unless keepResults */
+    private Probe run(int[] states) {
+        HostVmPair moved = pStateModel.apply(factory, hostList, vmList, states);
+        AlgorithmResult result = runner.run(moved.hosts(), moved.vms());
+        RunSummary summary = null;
+        double[] vmUtilization = new double[pStateModel.vmCount()];
+        if (result != null) {
+            summary = RunSummary.of(result);
+            summaries.add(summary);
+            for (int j = 0; j < result.vms().size() && j < vmUtilization.length; j++)
+                vmUtilization[j] = result.vms().get(j).getCpuUtilizationStats().getMean();
+            if (keepResults)
+                results.add(result);
+        }
+        Probe probe = new Probe(states.clone(), summary != null && acceptable.test(summary), summary, vmUtilization);
+        probes.add(probe);
+        return probe;
+    }
+
+    /* takes the vector's own run, running it if it was only known to be acceptable through the bound */
+    private void choose(int[] states) {
+        bestStates = states.clone();
+        for (Probe known : probes) {
+            if (Arrays.equals(known.states(), states)) {
+                bestSummary = known.summary();
+                return;
+            }
+        }
+        bestSummary = run(states).summary();
+    }
+
+    /*
+     * host of the VM with the lowest mean CPU use in the step's run among the hosts that can still go
+     * lower, the VMs taken by host id and then in order as the loop did; -1 when every host is at state 0
+     */
+    private int leastUsedHost(Probe step) {
+        int chosen = -1;
+        double lowest = Double.MAX_VALUE;
+        for (int host = 0; host < pStateModel.hostCount(); host++) {
+            if (step.states()[host] == 0)
+                continue;
+            for (int j = 0; j < pStateModel.vmCount(); j++) {
+                if (pStateModel.hostOf(j) == host && step.vmUtilization()[j] < lowest) {
+                    lowest = step.vmUtilization()[j];
+                    chosen = host;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    private static int hostsAboveLowest(int[] states) {
+        int hosts = 0;
+        for (int state : states) {
+            if (state > 0)
+                hosts++;
+        }
+        return hosts;
+    }
+
+    private static int[] with(int[] states, int host, int state) {
+        int[] changed = states.clone();
+        changed[host] = state;
+        return changed;
+    }
+
+    private static boolean atOrAbove(int[] a, int[] b) {
+        for (int h = 0; h < a.length; h++) {
+            if (a[h] < b[h])
+                return false;
+        }
+        return true;
+    }
+
+    /** Full runs of the algorithm made by the last {@link #plan()}. */
+    public int getFullRuns() {
+        return probes.size();
+    }
+
+    /** P-state vectors on the last {@link #plan()}'s search path settled by the monotonicity bound, without a run. */
+    public int getDecidedByBound() {
+        return decidedByBound;
+    }
+
+    /** Runs the one-step-at-a-time loop could need from the given states: one per step down, plus the first. */
+    public int getOneStepRunsBound() {
+        int steps = 1;
+        for (int state : pStateModel.currentStates())
+            steps += state;
+        return steps;
+    }
+
+    /** P-state of every host in the chosen vector; {@code null} if the given states were not acceptable. */
+    public int[] getBestStates() {
+        return bestStates == null ? null : bestStates.clone();
+    }
+
+    public RunSummary getBestSummary() {
+        return bestSummary;
+    }
+
+    /** Full result of every run of the last {@link #plan()}, in order; empty unless {@link #setKeepResults(boolean) kept}. */
+    public List<AlgorithmResult> getResults() {
+        return results;
+    }
+}
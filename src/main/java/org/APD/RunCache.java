@@ -0,0 +1,242 @@
+package org.APD;
+
+import org.APD.Algorithms.SchedulingAlgorithm;
+import org.APD.PowerModels.PowerModelPStateProcessor;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Run summaries on disk, addressed by a hash of everything that decides them, so an experiment
+ * re-run only computes the cells that changed.
+ * <p>
+ * The key, see {@link #key}, covers the algorithm's {@link SchedulingAlgorithm#cacheKey() settings},
+ * the scenario scalars of {@link RelevantDataForAlgorithms}, the hosts with their P-states, the VMs,
+ * the cloudlets and a context string for how the runs were driven. The seed is one of the algorithm's
+ * settings and the workload is hashed by content, so the workload seed is covered too. Algorithms
+ * whose runs do not repeat have no key and are not cached.
+ * </p>
+ * <p>
+ * The file is append-only: each record is the 32-byte key, the payload length, the payload and a
+ * CRC32 of key and payload. Opening it scans the records into an index of key → offset; a torn
+ * record at the end, left by a crash mid-write, is cut off. A key written twice keeps its last
+ * record. The names of the runs are not stored, {@link #get} labels them for the caller.
+ * </p>
+ */
+public class RunCache implements Closeable {
+
+    private static final int KEY_BYTES = 32;
+    private static final int RUN_BYTES = 5 * Integer.BYTES + 3 * Double.BYTES + Long.BYTES;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Long> index = new HashMap<>(); // key → offset of its payload
+    private int hits;
+    private int misses;
+
+    public RunCache(Path file) throws IOException {
+        this.file = file;
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+    }
+
+    /* scans the records; everything from the first incomplete or corrupt one on is dropped */
+    private void loadIndex() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(KEY_BYTES + Integer.BYTES);
+        while (position + header.capacity() <= size) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(KEY_BYTES);
+            long end = position + header.capacity() + length + Integer.BYTES;
+            if (length < Integer.BYTES || end > size)
+                break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length + Integer.BYTES);
+            channel.read(payload, position + header.capacity());
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 0, KEY_BYTES);
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != payload.getInt(length))
+                break;
+
+            index.put(HEX.formatHex(header.array(), 0, KEY_BYTES), position + header.capacity());
+            position = end;
+        }
+        if (position < size) {
+            System.err.printf("Run cache %s: dropping %d bytes of an unfinished record%n", file, size - position);
+            channel.truncate(position);
+        }
+    }
+
+    /** The cached runs under {@code key}, all named {@code label}; {@code null} if there are none. */
+    public synchronized List<RunSummary> get(String key, String label) {
+        Long offset = index.get(key);
+        if (offset == null) {
+            misses++;
+            return null;
+        }
+        try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, offset - Integer.BYTES);
+            ByteBuffer payload = ByteBuffer.allocate(length.getInt(0));
+            channel.read(payload, offset);
+            payload.flip();
+
+            int count = payload.getInt();
+            List<RunSummary> runs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                runs.add(new RunSummary(label,
+                        payload.getInt(), payload.getInt(), payload.getInt(), payload.getInt(), payload.getInt(),
+                        payload.getDouble(), payload.getDouble(), payload.getDouble(), payload.getLong()));
+            }
+            hits++;
+            return runs;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read run cache " + file, e);
+        }
+    }
+
+    /** Appends the runs under {@code key} and forces them to disk. */
+    public synchronized void put(String key, List<RunSummary> runs) {
+        byte[] keyBytes = HEX.parseHex(key);
+        int length = Integer.BYTES + runs.size() * RUN_BYTES;
+        ByteBuffer record = ByteBuffer.allocate(KEY_BYTES + Integer.BYTES + length + Integer.BYTES);
+        record.put(keyBytes).putInt(length).putInt(runs.size());
+        for (RunSummary run : runs) {
+            record.putInt(run.totalCloudlets()).putInt(run.violations())
+                    .putInt(run.tier1()).putInt(run.tier2()).putInt(run.tier3())
+                    .putDouble(run.avgTardiness()).putDouble(run.maxTardiness()).putDouble(run.powerConsumption())
+                    .putLong(run.totalExecutionTime());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, KEY_BYTES);
+        crc.update(record.array(), KEY_BYTES + Integer.BYTES, length);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        try {
+            long position = channel.size();
+            while (record.hasRemaining())
+                channel.write(record, position + record.position());
+            channel.force(false);
+            index.put(key, position + KEY_BYTES + Integer.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to run cache " + file, e);
+        }
+    }
+
+    /**
+     * The cached runs under {@code key}, or the runs {@code compute} returns, stored unless empty.
+     * {@code compute} runs outside the cache's lock, so the same key may be computed twice at once.
+     */
+    public List<RunSummary> computeIfAbsent(String key, String label, Supplier<List<RunSummary>> compute) {
+        List<RunSummary> cached = get(key, label);
+        if (cached != null)
+            return cached;
+        List<RunSummary> runs = compute.get();
+        if (!runs.isEmpty())
+            put(key, runs);
+        return runs;
+    }
+
+    /**
+     * Hash of what decides the runs of {@code algorithm} on {@code scenario}; {@code null} when the
+     * algorithm has no {@link SchedulingAlgorithm#cacheKey() cache key}.
+     *
+     * @param context how the runs are driven, e.g. the P-state search and its SLA cutoff
+     */
+    public static String key(String context, SchedulingAlgorithm algorithm, RelevantDataForAlgorithms scenario) {
+        String settings = algorithm.cacheKey();
+        if (settings == null)
+            return null;
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), sha))) {
+                out.writeUTF(context);
+                out.writeUTF(settings);
+                writeScenario(out, scenario);
+            }
+            return HEX.formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException | IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to hash the run", e);
+        }
+    }
+
+    private static void writeScenario(DataOutputStream out, RelevantDataForAlgorithms scenario)
+            throws IOException, ReflectiveOperationException {
+        for (RecordComponent component : RelevantDataForAlgorithms.class.getRecordComponents()) {
+            if (component.getType() != List.class)
+                out.writeUTF(component.getName() + "=" + component.getAccessor().invoke(scenario));
+        }
+
+        out.writeInt(scenario.hostList().size());
+        for (Host host : scenario.hostList()) {
+            out.writeDouble(host.getTotalMipsCapacity());
+            out.writeLong(host.getPesNumber());
+            if (host.getPowerModel() instanceof PowerModelPStateProcessor model) {
+                out.writeInt(model.getCurrentPerformanceState());
+                out.writeDouble(model.getStaticPower());
+                for (PowerModelPStateProcessor.PerformanceState state : model.getPossiblePerformanceStates()) {
+                    out.writeDouble(state.powerConsumption());
+                    out.writeDouble(state.processingFraction());
+                }
+            }
+        }
+
+        out.writeInt(scenario.vmList().size());
+        for (Vm vm : scenario.vmList()) {
+            out.writeDouble(vm.getMips());
+            out.writeLong(vm.getPesNumber());
+        }
+
+        out.writeInt(scenario.cloudletList().size());
+        for (DeadlineCloudlet cloudlet : scenario.cloudletList()) {
+            out.writeLong(cloudlet.getLength());
+            out.writeLong(cloudlet.getPesNumber());
+            out.writeDouble(cloudlet.getSubmissionDelay());
+            out.writeDouble(cloudlet.getDeadline());
+        }
+    }
+
+    /** Lookups answered from the file since it was opened. */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /** Lookups that found nothing since the file was opened. */
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        System.out.printf("Run cache %s: %d hits, %d misses, %d entries%n", file, hits, misses, index.size());
+        channel.close();
+    }
+}
@@ -0,0 +1,87 @@
+package org.APD;
+
+import org.APD.PowerModels.PowerModelPStateProcessor;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.List;
+
+/**
+ * The figures of one run that go into the SLA CSV, without the simulation behind them.
+ * <p>
+ * Tardiness is counted over the cloudlets that missed their deadline; the tiers split them by
+ * how far past it they finished: up to 10%, up to 50% and more. Power is the sum over the VMs of
+ * their share of their host's power, as {@code printVmsCpuUtilizationAndPowerConsumption} prints it.
+ * </p>
+ */
+public record RunSummary(
+        String algorithmName,
+        int totalCloudlets,
+        int violations,
+        int tier1,
+        int tier2,
+        int tier3,
+        double avgTardiness,
+        double maxTardiness,
+        double powerConsumption,
+        long totalExecutionTime
+) {
+
+    public static RunSummary of(AlgorithmResult result) {
+        return of(result.algorithmName(), result.cloudletFinishedList(), result.vms(), result.totalExecutionTime());
+    }
+
+    public static RunSummary of(String algorithmName, List<DeadlineCloudlet> finished, List<Vm> vmList,
+                                long totalExecutionTime) {
+        int violations = 0, total = 0;
+        double totalTardiness = 0, maxTardiness = 0;
+        int tier1 = 0, tier2 = 0, tier3 = 0;
+
+        for (Cloudlet cl : finished) {
+            if (cl instanceof DeadlineCloudlet dc) {
+                total++;
+                double tardiness = Math.max(0, dc.getFinishTime() - dc.getDeadline());
+                if (tardiness > 0) {
+                    violations++;
+                    totalTardiness += tardiness;
+                    maxTardiness = Math.max(maxTardiness, tardiness);
+
+                    double rel = tardiness / dc.getDeadline();
+                    if (rel <= 0.10)      tier1++;
+                    else if (rel <= 0.50) tier2++;
+                    else                  tier3++;
+                }
+            }
+        }
+
+        double totalPowerConsumption = 0;
+        for (Vm vm : vmList) {
+            final var powerModel = vm.getHost().getPowerModel();
+            final double hostStaticPower = powerModel instanceof PowerModelPStateProcessor powerModelHost ? powerModelHost.getStaticPower() : 0;
+            final double hostStaticPowerByVm = hostStaticPower / vm.getHost().getVmCreatedList().size();
+
+            //VM CPU utilization relative to the host capacity
+            final double vmRelativeCpuUtilization = vm.getCpuUtilizationStats().getMean() / vm.getHost().getVmCreatedList().size();
+            final double vmPower = powerModel.getPower(vmRelativeCpuUtilization) - hostStaticPower + hostStaticPowerByVm; // W
+            totalPowerConsumption += vmPower;
+        }
+
+        double avgTardiness = violations == 0 ? 0 : totalTardiness / violations;
+        return new RunSummary(algorithmName, total, violations, tier1, tier2, tier3,
+                avgTardiness, maxTardiness, totalPowerConsumption, totalExecutionTime);
+    }
+
+    public double violationPct() {
+        return totalCloudlets == 0 ? 0 : 100.0 * violations / totalCloudlets;
+    }
+
+    public RunSummary withAlgorithmName(String algorithmName) {
+        return new RunSummary(algorithmName, totalCloudlets, violations, tier1, tier2, tier3,
+                avgTardiness, maxTardiness, powerConsumption, totalExecutionTime);
+    }
+
+    public RunSummary withTotalExecutionTime(long totalExecutionTime) {
+        return new RunSummary(algorithmName, totalCloudlets, violations, tier1, tier2, tier3,
+                avgTardiness, maxTardiness, powerConsumption, totalExecutionTime);
+    }
+}
@@ -0,0 +1,70 @@
+package org.APD.Algorithms;
+
+import org.APD.DeadlineCloudlet;
+import org.cloudsimplus.vms.Vm;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The ants of a SURROGATE-mode colony are allocated once per run, so an iteration should only
+ * allocate a few small objects per ant and nothing per cloudlet. The colony is run for N and 2N
+ * iterations on the same seeded workload and the difference in bytes allocated by this thread,
+ * divided by N, is the allocation of one iteration.
+ */
+class ACOAllocationTest {
+
+    private static final long WORKLOAD_SEED = 42;
+    private static final long COLONY_SEED = 7;
+    private static final int ANTS = 15;
+    private static final int ITERATIONS = 50;
+    // a split random and a task per ant, with room to spare; a per-cloudlet plan would be far above it
+    private static final long MAX_BYTES_PER_ITERATION = 16 * 1024;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void iterationAllocationDoesNotGrowWithTheWorkload() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Workload workload = new Workload();
+        SpaceSharedSurrogate model = new SpaceSharedSurrogate(workload.cloudlets, workload.vms);
+
+        // class loading and first-call allocation stay out of the measured runs
+        allocatedBy(model, 2 * ITERATIONS);
+
+        long once = allocatedBy(model, ITERATIONS);
+        long twice = allocatedBy(model, 2 * ITERATIONS);
+        long perIteration = (twice - once) / ITERATIONS;
+
+        assertTrue(perIteration < MAX_BYTES_PER_ITERATION,
+                "One iteration allocated " + perIteration + " bytes for " + model.cloudletCount() + " cloudlets");
+    }
+
+    /* bytes this thread allocates while the colony searches for {@code iterations} iterations */
+    private long allocatedBy(SpaceSharedSurrogate model, int iterations) {
+        ACOAlgorithm colony = new ACOAlgorithm(ANTS, iterations, 0.2)
+                .setEvaluationMode(ACOAlgorithm.EvaluationMode.SURROGATE)
+                .setAntPool(null);
+        PheromoneMatrix pheromones = new PheromoneMatrix(model.cloudletCount(), model.vmCount(), 1.0);
+        SplittableRandom random = new SplittableRandom(COLONY_SEED);
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        colony.searchColony(model, pheromones, true, random);
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    /* the seeded bursty workload of the experiments, on the default VMs */
+    private static class Workload extends AlgorithmBaseFunctionalities {
+        final List<DeadlineCloudlet> cloudlets = createCloudletsBurstyArrivalTightDeadlineHeavyTailoredBigGroupedJobs(WORKLOAD_SEED);
+        final List<Vm> vms = createVms();
+    }
+}